@@ -0,0 +1,331 @@
+/*******************************************************************************
+ * Copyright (c) 2008 Sonatype, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *      Sonatype, Inc. - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.m2e.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
+
+import org.apache.maven.model.Model;
+import org.apache.maven.model.Profile;
+import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
+
+
+/**
+ * What project scanning needs from a pom, i.e. parent, coordinates, packaging and modules including those of profiles,
+ * read either as full {@link Model} the way {@code MavenModelManager} does, or with a streaming reader that skips
+ * everything else. Module pom is shaped like the test projects, with dependencies, build configuration and a profile
+ * after the modules, small pom is a typical jar project with a few dependencies.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PomHeaderBenchmark {
+
+  @Param({"small", "module", "aggregator"})
+  public String pom;
+
+  /** number of modules of the aggregator pom */
+  @Param({"5000"})
+  public int modules;
+
+  private byte[] bytes;
+
+  @Setup
+  public void setup() throws IOException {
+    if("aggregator".equals(pom)) {
+      bytes = aggregatorPom(modules).getBytes("UTF-8");
+    } else if("module".equals(pom)) {
+      bytes = modulePom().getBytes("UTF-8");
+    } else {
+      bytes = smallPom().getBytes("UTF-8");
+    }
+    PomHeader header = header();
+    Model model = fullModel();
+    int modelModules = model.getModules().size();
+    for(Profile profile : model.getProfiles()) {
+      modelModules += profile.getModules().size();
+    }
+    if(header.artifactId == null || !header.artifactId.equals(model.getArtifactId())
+        || header.modules.size() != modelModules) {
+      throw new IllegalStateException(pom);
+    }
+  }
+
+  @Benchmark
+  public Model fullModel() throws IOException {
+    try {
+      return new MavenXpp3Reader().read(new ByteArrayInputStream(bytes), false);
+    } catch(XmlPullParserException e) {
+      throw new IOException(e);
+    }
+  }
+
+  @Benchmark
+  public PomHeader header() throws IOException {
+    return PomHeader.read(new ByteArrayInputStream(bytes));
+  }
+
+  static String smallPom() {
+    StringBuilder sb = new StringBuilder();
+    sb.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+    sb.append("<project xmlns=\"http://maven.apache.org/POM/4.0.0\">\n");
+    sb.append("  <modelVersion>4.0.0</modelVersion>\n");
+    sb.append("  <parent>\n");
+    sb.append("    <groupId>org.example</groupId>\n");
+    sb.append("    <artifactId>parent</artifactId>\n");
+    sb.append("    <version>1.0.0-SNAPSHOT</version>\n");
+    sb.append("  </parent>\n");
+    sb.append("  <artifactId>small</artifactId>\n");
+    sb.append("  <packaging>jar</packaging>\n");
+    sb.append("  <dependencies>\n");
+    for(int i = 0; i < 5; i++ ) {
+      sb.append("    <dependency>\n");
+      sb.append("      <groupId>org.example.libs</groupId>\n");
+      sb.append("      <artifactId>lib").append(i).append("</artifactId>\n");
+      sb.append("      <version>1.").append(i).append("</version>\n");
+      sb.append("    </dependency>\n");
+    }
+    sb.append("  </dependencies>\n");
+    sb.append("</project>\n");
+    return sb.toString();
+  }
+
+  static String modulePom() {
+    StringBuilder sb = new StringBuilder();
+    sb.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+    sb.append("<project xmlns=\"http://maven.apache.org/POM/4.0.0\">\n");
+    sb.append("  <modelVersion>4.0.0</modelVersion>\n");
+    sb.append("  <parent>\n");
+    sb.append("    <groupId>org.example</groupId>\n");
+    sb.append("    <artifactId>parent</artifactId>\n");
+    sb.append("    <version>1.0.0-SNAPSHOT</version>\n");
+    sb.append("  </parent>\n");
+    sb.append("  <artifactId>p001</artifactId>\n");
+    sb.append("  <packaging>jar</packaging>\n");
+    sb.append("  <name>p001</name>\n");
+    sb.append("  <modules>\n");
+    sb.append("    <module>p001-api</module>\n");
+    sb.append("    <module>p001-impl</module>\n");
+    sb.append("  </modules>\n");
+    sb.append("  <properties>\n");
+    sb.append("    <project.build.sourceEncoding>UTF-8</project.build.sourceEncoding>\n");
+    sb.append("  </properties>\n");
+    sb.append("  <dependencies>\n");
+    for(int i = 0; i < 30; i++ ) {
+      sb.append("    <dependency>\n");
+      sb.append("      <groupId>org.example.libs</groupId>\n");
+      sb.append("      <artifactId>lib").append(i).append("</artifactId>\n");
+      sb.append("      <version>1.").append(i).append("</version>\n");
+      sb.append("      <exclusions>\n");
+      sb.append("        <exclusion>\n");
+      sb.append("          <groupId>commons-logging</groupId>\n");
+      sb.append("          <artifactId>commons-logging</artifactId>\n");
+      sb.append("        </exclusion>\n");
+      sb.append("      </exclusions>\n");
+      sb.append("    </dependency>\n");
+    }
+    sb.append("  </dependencies>\n");
+    sb.append("  <build>\n");
+    sb.append("    <plugins>\n");
+    for(int i = 0; i < 10; i++ ) {
+      sb.append("      <plugin>\n");
+      sb.append("        <groupId>org.example.plugins</groupId>\n");
+      sb.append("        <artifactId>plugin").append(i).append("</artifactId>\n");
+      sb.append("        <version>2.").append(i).append("</version>\n");
+      sb.append("        <executions>\n");
+      sb.append("          <execution>\n");
+      sb.append("            <goals><goal>generate</goal></goals>\n");
+      sb.append("            <configuration><outputDirectory>${project.build.directory}/gen").append(i)
+          .append("</outputDirectory></configuration>\n");
+      sb.append("          </execution>\n");
+      sb.append("        </executions>\n");
+      sb.append("      </plugin>\n");
+    }
+    sb.append("    </plugins>\n");
+    sb.append("  </build>\n");
+    sb.append("  <profiles>\n");
+    sb.append("    <profile>\n");
+    sb.append("      <id>it</id>\n");
+    sb.append("      <modules>\n");
+    sb.append("        <module>p001-it</module>\n");
+    sb.append("      </modules>\n");
+    sb.append("    </profile>\n");
+    sb.append("  </profiles>\n");
+    sb.append("</project>\n");
+    return sb.toString();
+  }
+
+  static String aggregatorPom(int modules) {
+    StringBuilder sb = new StringBuilder();
+    sb.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+    sb.append("<project xmlns=\"http://maven.apache.org/POM/4.0.0\">\n");
+    sb.append("  <modelVersion>4.0.0</modelVersion>\n");
+    sb.append("  <groupId>org.example</groupId>\n");
+    sb.append("  <artifactId>aggregator</artifactId>\n");
+    sb.append("  <version>1.0.0-SNAPSHOT</version>\n");
+    sb.append("  <packaging>pom</packaging>\n");
+    sb.append("  <modules>\n");
+    for(int i = 0; i < modules; i++ ) {
+      sb.append("    <module>module").append(i).append("</module>\n");
+    }
+    sb.append("  </modules>\n");
+    sb.append("</project>\n");
+    return sb.toString();
+  }
+
+  /**
+   * Candidate streaming reader. Reads top level coordinates, parent, modules and modules of profiles, and skips other
+   * elements without looking into them. Profile modules are added to {@link #modules} together with top level ones.
+   */
+  public static class PomHeader {
+
+    private static final XMLInputFactory FACTORY;
+
+    static {
+      FACTORY = XMLInputFactory.newInstance();
+      FACTORY.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+      FACTORY.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+    }
+
+    String parentGroupId;
+
+    String parentArtifactId;
+
+    String parentVersion;
+
+    String groupId;
+
+    String artifactId;
+
+    String version;
+
+    String packaging;
+
+    final List<String> modules = new ArrayList<String>();
+
+    static PomHeader read(InputStream is) throws IOException {
+      try {
+        XMLStreamReader reader = FACTORY.createXMLStreamReader(is);
+        try {
+          PomHeader header = new PomHeader();
+          header.read(reader);
+          return header;
+        } finally {
+          reader.close();
+        }
+      } catch(XMLStreamException e) {
+        throw new IOException(e);
+      }
+    }
+
+    private void read(XMLStreamReader reader) throws XMLStreamException {
+      // names of the open elements, project first
+      List<String> path = new ArrayList<String>();
+      while(reader.hasNext()) {
+        int event = reader.next();
+        if(event == XMLStreamConstants.START_ELEMENT) {
+          String name = reader.getLocalName();
+          int depth = path.size();
+          if(depth == 1) {
+            if("groupId".equals(name)) {
+              groupId = text(reader);
+              continue;
+            } else if("artifactId".equals(name)) {
+              artifactId = text(reader);
+              continue;
+            } else if("version".equals(name)) {
+              version = text(reader);
+              continue;
+            } else if("packaging".equals(name)) {
+              packaging = text(reader);
+              continue;
+            } else if(!"parent".equals(name) && !"modules".equals(name) && !"profiles".equals(name)) {
+              skip(reader);
+              continue;
+            }
+          } else if(depth == 2 && "parent".equals(path.get(1))) {
+            if("groupId".equals(name)) {
+              parentGroupId = text(reader);
+              continue;
+            } else if("artifactId".equals(name)) {
+              parentArtifactId = text(reader);
+              continue;
+            } else if("version".equals(name)) {
+              parentVersion = text(reader);
+              continue;
+            }
+          } else if(depth == 2 && "modules".equals(path.get(1)) && "module".equals(name)) {
+            modules.add(text(reader));
+            continue;
+          } else if(depth == 3 && "profiles".equals(path.get(1)) && !"modules".equals(name)) {
+            skip(reader);
+            continue;
+          } else if(depth == 4 && "profiles".equals(path.get(1)) && "module".equals(name)) {
+            modules.add(text(reader));
+            continue;
+          }
+          path.add(name);
+        } else if(event == XMLStreamConstants.END_ELEMENT) {
+          path.remove(path.size() - 1);
+        }
+      }
+    }
+
+    /**
+     * Skips the current element and its content, consuming its end element.
+     */
+    private static void skip(XMLStreamReader reader) throws XMLStreamException {
+      int depth = 1;
+      while(depth > 0) {
+        int event = reader.next();
+        if(event == XMLStreamConstants.START_ELEMENT) {
+          depth++;
+        } else if(event == XMLStreamConstants.END_ELEMENT) {
+          depth--;
+        }
+      }
+    }
+
+    /**
+     * Reads text of the current element, consuming its end element.
+     */
+    private static String text(XMLStreamReader reader) throws XMLStreamException {
+      return reader.getElementText().trim();
+    }
+  }
+}
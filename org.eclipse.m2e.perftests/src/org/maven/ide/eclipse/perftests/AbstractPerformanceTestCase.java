@@ -0,0 +1,338 @@
+/*******************************************************************************
+ * Copyright (c) 2008 Sonatype, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+
+package org.maven.ide.eclipse.perftests;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import org.codehaus.plexus.util.FileUtils;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.IWorkspaceRunnable;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.m2e.core.MavenPlugin;
+import org.eclipse.m2e.core.embedder.MavenModelManager;
+import org.eclipse.m2e.core.internal.MavenPluginActivator;
+import org.eclipse.m2e.core.internal.project.registry.ProjectRegistryManager;
+import org.eclipse.m2e.core.project.IMavenProjectChangedListener;
+import org.eclipse.m2e.core.project.IMavenProjectImportResult;
+import org.eclipse.m2e.core.project.IProjectConfigurationManager;
+import org.eclipse.m2e.core.project.LocalProjectScanner;
+import org.eclipse.m2e.core.project.MavenProjectChangedEvent;
+import org.eclipse.m2e.core.project.MavenProjectInfo;
+import org.eclipse.m2e.core.project.MavenUpdateRequest;
+import org.eclipse.m2e.core.project.ProjectImportConfiguration;
+import org.eclipse.m2e.tests.common.AbstractMavenProjectTestCase;
+import org.eclipse.test.internal.performance.InternalDimensions;
+import org.eclipse.test.internal.performance.InternalPerformanceMeter;
+import org.eclipse.test.internal.performance.PerformanceTestPlugin;
+import org.eclipse.test.internal.performance.db.DB;
+import org.eclipse.test.internal.performance.eval.AssertChecker;
+import org.eclipse.test.internal.performance.eval.Evaluator;
+import org.eclipse.test.internal.performance.eval.RelativeBandChecker;
+import org.eclipse.test.performance.Performance;
+import org.eclipse.test.performance.PerformanceMeter;
+
+
+/**
+ * Common performance meter and import plumbing shared by the import/refresh performance scenarios.
+ *
+ * @author igor
+ */
+@SuppressWarnings("restriction")
+public abstract class AbstractPerformanceTestCase extends AbstractMavenProjectTestCase {
+
+  protected static final int EXECUTION_COUNT = 5;
+
+  protected PerformanceMeter fPerformanceMeter;
+
+  protected IProjectConfigurationManager configurationManager;
+
+  protected MavenModelManager modelManager;
+
+  protected ProjectRegistryManager projectManager;
+
+  protected final List<MavenProjectChangedEvent> events = new ArrayList<MavenProjectChangedEvent>();
+
+  /**
+   * Number of MavenProjectChangedEvent notifications, i.e. registry refresh passes that changed at least one project.
+   * Tests reset it together with {@link #events}.
+   */
+  protected int notifications;
+
+  /**
+   * Per-phase breakdown of import and refresh. Tests reset it after warm up, so it only holds measured iterations.
+   */
+  protected final PhaseTimer phases = new PhaseTimer();
+
+  /**
+   * Allocated and retained heap of measured iterations, see {@link #assertMemory(int)}
+   */
+  protected final MemoryMeter memory = new MemoryMeter();
+
+  /**
+   * Wall and CPU time of the last MavenProjectChangedEvent notification, splits import into registry refresh and
+   * project configuration
+   */
+  private long[] lastEventTime;
+
+  private String origSettings;
+
+  private IMavenProjectChangedListener mavenProjectChangeListener = new IMavenProjectChangedListener() {
+    public void mavenProjectChanged(MavenProjectChangedEvent[] events, IProgressMonitor monitor) {
+      AbstractPerformanceTestCase.this.events.addAll(Arrays.asList(events));
+      notifications++ ;
+      lastEventTime = PhaseTimer.now();
+    }
+  };
+
+  protected void setUp() throws Exception {
+    super.setUp();
+
+    configurationManager = MavenPlugin.getProjectConfigurationManager();
+    modelManager = MavenPlugin.getMavenModelManager();
+    projectManager = MavenPluginActivator.getDefault().getMavenProjectManagerImpl();
+
+    Performance performance = Performance.getDefault();
+    fPerformanceMeter = performance.createPerformanceMeter(getScenarioId(performance));
+
+    projectManager.addMavenProjectChangedListener(mavenProjectChangeListener);
+
+    origSettings = mavenConfiguration.getUserSettingsFile();
+  }
+
+  protected void tearDown() throws Exception {
+    try {
+      mavenConfiguration.setUserSettingsFile(origSettings);
+    } finally {
+      projectManager.removeMavenProjectChangedListener(mavenProjectChangeListener);
+      fPerformanceMeter.dispose();
+      super.tearDown();
+    }
+  }
+
+  /**
+   * Returns performance database scenario id of the current test. Subclasses that run the same test method against
+   * different inputs should qualify the default id so each input gets its own reference data.
+   */
+  protected String getScenarioId(Performance performance) {
+    return performance.getDefaultScenarioId(this);
+  }
+
+  /**
+   * Starts measurement of one iteration. Memory meter runs full GC before performance meter starts and after it stops,
+   * so scenarios that keep their own wall clock timer take timestamps after {@link #startMeasuring()} and before
+   * {@link #stopMeasuring()}.
+   */
+  protected void startMeasuring() {
+    // full GC done by memory meter must not count towards measured CPU time
+    memory.start();
+    fPerformanceMeter.start();
+  }
+
+  protected void stopMeasuring() {
+    fPerformanceMeter.stop();
+    memory.stop();
+  }
+
+  protected void commitMeasurements() {
+    fPerformanceMeter.commit();
+    System.out.println(getName() + " phases:\n" + phases);
+    System.out.println(getName() + " memory:\n" + memory);
+  }
+
+  protected void assertPerformance(AssertChecker... assertCheckers) {
+    Evaluator e = new Evaluator();
+    e.setAssertCheckers(assertCheckers);
+    e.evaluate(fPerformanceMeter);
+
+    String scenarioName = ((InternalPerformanceMeter) fPerformanceMeter).getScenarioName();
+
+    @SuppressWarnings("rawtypes")
+    Map failures = DB.queryFailure(scenarioName, PerformanceTestPlugin.getVariations());
+
+    if(failures != null) {
+      assertTrue(failures.values().toString(), failures.isEmpty());
+    }
+  }
+
+  protected void assertPerformance() {
+    assertPerformance(//
+        new RelativeBandChecker(InternalDimensions.CPU_TIME, 0.8f, 1.1f), //
+        new RelativeBandChecker(InternalDimensions.RCHAR, 0.8f, 1.1f), //
+        new RelativeBandChecker(InternalDimensions.WCHAR, 0.8f, 1.1f)//
+    );
+    assertPhaseBudgets();
+  }
+
+  /**
+   * Asserts average wall time of each recorded phase against budget in milliseconds configured with
+   * {@code m2e.perftests.budget.<phase>} system property. Phases without configured budget are not checked.
+   */
+  protected void assertPhaseBudgets() {
+    StringBuilder failures = new StringBuilder();
+    for(String phase : phases.getPhases()) {
+      Long budget = Long.getLong("m2e.perftests.budget." + phase);
+      if(budget != null && phases.getWallTime(phase) > budget.longValue()) {
+        failures.append(phase).append(" took ").append(phases.getWallTime(phase)).append("ms, budget is ")
+            .append(budget).append("ms\n");
+      }
+    }
+    assertTrue(failures.toString(), failures.length() == 0);
+  }
+
+  /**
+   * Writes memory measurements to {@code target/memory/<scenario>.properties} and compares them to the file with the
+   * same name in directory given by {@code m2e.perftests.memoryReference} system property, if set. Per-module values
+   * are checked when {@code moduleCount} is positive, totals otherwise.
+   *
+   * @param moduleCount number of modules imported in each measured iteration
+   */
+  protected void assertMemory(int moduleCount) throws IOException {
+    if(moduleCount > 0) {
+      assertMemory(moduleCount, //
+          new MemoryBandChecker(MemoryMeter.ALLOCATED_PER_MODULE, 0.8f, 1.1f), //
+          new MemoryBandChecker(MemoryMeter.RETAINED_PER_MODULE, 0.8f, 1.1f));
+    } else {
+      assertMemory(moduleCount, //
+          new MemoryBandChecker(MemoryMeter.ALLOCATED, 0.8f, 1.1f), //
+          new MemoryBandChecker(MemoryMeter.RETAINED, 0.8f, 1.1f));
+    }
+  }
+
+  protected void assertMemory(int moduleCount, MemoryBandChecker... checkers) throws IOException {
+    String scenarioName = ((InternalPerformanceMeter) fPerformanceMeter).getScenarioName();
+    String filename = scenarioName.replaceAll("[^A-Za-z0-9._-]", "_") + ".properties";
+
+    Properties current = memory.toProperties(moduleCount);
+    File file = new File("target/memory", filename);
+    file.getParentFile().mkdirs();
+    OutputStream os = new FileOutputStream(file);
+    try {
+      current.store(os, scenarioName);
+    } finally {
+      os.close();
+    }
+
+    String referenceDir = System.getProperty("m2e.perftests.memoryReference");
+    File referenceFile = referenceDir != null ? new File(referenceDir, filename) : null;
+    if(referenceFile == null || !referenceFile.isFile()) {
+      return;
+    }
+    Properties reference = new Properties();
+    InputStream is = new FileInputStream(referenceFile);
+    try {
+      reference.load(is);
+    } finally {
+      is.close();
+    }
+
+    StringBuilder failures = new StringBuilder();
+    for(MemoryBandChecker checker : checkers) {
+      String failure = checker.check(reference, current);
+      if(failure != null) {
+        failures.append(failure).append('\n');
+      }
+    }
+    assertTrue(failures.toString(), failures.length() == 0);
+  }
+
+  /**
+   * Refreshes the project registry, timed as {@link PhaseTimer#REFRESH}.
+   */
+  protected void refresh(MavenUpdateRequest request, IProgressMonitor monitor) throws CoreException {
+    phases.start(PhaseTimer.REFRESH);
+    try {
+      projectManager.refresh(request, monitor);
+    } finally {
+      phases.stop(PhaseTimer.REFRESH);
+    }
+  }
+
+  /**
+   * Waits for background jobs scheduled by import or refresh, timed as {@link PhaseTimer#JOBS}.
+   */
+  protected void waitForBackgroundJobs() throws Exception {
+    phases.start(PhaseTimer.JOBS);
+    try {
+      waitForJobsToComplete();
+    } finally {
+      phases.stop(PhaseTimer.JOBS);
+    }
+  }
+
+  protected List<IMavenProjectImportResult> importProjects(final File dir) throws CoreException {
+    final List<IMavenProjectImportResult> results = new ArrayList<IMavenProjectImportResult>();
+    workspace.run(new IWorkspaceRunnable() {
+      public void run(IProgressMonitor monitor) throws CoreException {
+        ProjectImportConfiguration configuration = new ProjectImportConfiguration();
+
+        LocalProjectScanner scanner = new LocalProjectScanner(workspace.getRoot().getLocation().toFile(), dir
+            .getAbsolutePath(), false, modelManager);
+        phases.start(PhaseTimer.SCAN);
+        try {
+          scanner.run(monitor);
+        } catch(InterruptedException e) {
+          throw new CoreException(new Status(IStatus.ERROR, "pluginId", "Interrupted", e));
+        } finally {
+          phases.stop(PhaseTimer.SCAN);
+        }
+
+        Set<MavenProjectInfo> projectInfos;
+        phases.start(PhaseTimer.COLLECT);
+        try {
+          projectInfos = configurationManager.collectProjects(scanner.getProjects());
+        } finally {
+          phases.stop(PhaseTimer.COLLECT);
+        }
+
+        lastEventTime = null;
+        long[] start = PhaseTimer.now();
+        results.addAll(configurationManager.importProjects(projectInfos, configuration, monitor));
+        long[] end = PhaseTimer.now();
+        phases.record(PhaseTimer.IMPORT, end[0] - start[0], end[1] - start[1]);
+        if(lastEventTime != null) {
+          phases.record(PhaseTimer.REGISTRY, lastEventTime[0] - start[0], lastEventTime[1] - start[1]);
+          phases.record(PhaseTimer.CONFIGURE, end[0] - lastEventTime[0], end[1] - lastEventTime[1]);
+        }
+      }
+    }, configurationManager.getRule(), IWorkspace.AVOID_UPDATE, monitor);
+    return results;
+  }
+
+  /**
+   * Generates the synthetic workspace against the bundled remote repository and switches user settings to the
+   * generated ones. Original settings are restored in {@link #tearDown()}.
+   */
+  protected SyntheticWorkspaceGenerator generateWorkspace(SyntheticWorkspaceGenerator generator) throws Exception {
+    generator.generate(new File("remoteRepo"));
+    mavenConfiguration.setUserSettingsFile(generator.getSettingsFile().getCanonicalPath());
+    waitForJobsToComplete();
+    return generator;
+  }
+
+  protected File getBasedir(String src, String name) throws IOException {
+    File dir = new File("target", name).getCanonicalFile();
+    FileUtils.deleteDirectory(dir);
+    FileUtils.copyDirectoryStructure(new File("projects/", src), dir);
+    return dir;
+  }
+}
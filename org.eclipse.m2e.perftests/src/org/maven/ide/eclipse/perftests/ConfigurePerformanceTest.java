@@ -0,0 +1,81 @@
+/*******************************************************************************
+ * Copyright (c) 2008 Sonatype, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+
+package org.maven.ide.eclipse.perftests;
+
+import java.io.File;
+import java.util.List;
+
+import org.eclipse.m2e.core.project.IMavenProjectImportResult;
+import org.eclipse.m2e.tests.common.WorkspaceHelpers;
+import org.maven.ide.eclipse.perftests.SyntheticWorkspaceGenerator.PluginMix;
+
+
+/**
+ * Project configuration part of import, i.e. configurator execution, with every module using configurators. Modules
+ * either do not depend on each other, so all of them could be configured at the same time, or each depends on five
+ * others, so configuration has to follow build order. Number of modules is controlled with
+ * {@code m2e.perftests.configureModules}, 900 by default.
+ * <p>
+ * CPU time of the importing thread close to wall time means configurators ran on that thread one after another.
+ */
+public class ConfigurePerformanceTest extends AbstractPerformanceTestCase {
+
+  private static final int MODULES = Integer.getInteger("m2e.perftests.configureModules", 900);
+
+  public void testConfigureIndependentProjects() throws Exception {
+    runImport(0);
+  }
+
+  public void testConfigureDependentProjects() throws Exception {
+    runImport(5);
+  }
+
+  private void runImport(int fanOut) throws Exception {
+    File basedir = new File("target/synthetic", getName()).getCanonicalFile();
+    SyntheticWorkspaceGenerator generator = generateWorkspace(new SyntheticWorkspaceGenerator(basedir, MODULES,
+        fanOut, 1, PluginMix.CONFIGURED));
+
+    // warm up, also populates local repository
+    System.out.println(getName() + "#warmup");
+    assertImported(generator, importProjects(generator.getProjectsDirectory()));
+
+    phases.reset();
+    for(int i = 0; i < EXECUTION_COUNT; i++ ) {
+      System.out.println(getName() + "#" + i);
+
+      WorkspaceHelpers.cleanWorkspace();
+      waitForJobsToComplete();
+      generator.generateProjects();
+
+      startMeasuring();
+      List<IMavenProjectImportResult> results = importProjects(generator.getProjectsDirectory());
+      stopMeasuring();
+      waitForBackgroundJobs();
+
+      // sanity check
+      assertImported(generator, results);
+    }
+
+    System.out.println("configure," + MODULES + "," + fanOut + "," + phases.getWallTime(PhaseTimer.CONFIGURE) + ","
+        + phases.getCpuTime(PhaseTimer.CONFIGURE) + "," + phases.getWallTime(PhaseTimer.REGISTRY));
+
+    commitMeasurements();
+    assertPerformance();
+    assertMemory(generator.getProjectCount());
+  }
+
+  private void assertImported(SyntheticWorkspaceGenerator generator, List<IMavenProjectImportResult> results)
+      throws Exception {
+    assertEquals(generator.getProjectCount(), results.size());
+    for(IMavenProjectImportResult result : results) {
+      assertNotNull(result.getProject());
+      assertNoErrors(result.getProject());
+    }
+  }
+}
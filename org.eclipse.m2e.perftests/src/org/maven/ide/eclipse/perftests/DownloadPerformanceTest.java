@@ -0,0 +1,130 @@
+/*******************************************************************************
+ * Copyright (c) 2008 Sonatype, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+
+package org.maven.ide.eclipse.perftests;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import org.codehaus.plexus.util.FileUtils;
+import org.eclipse.m2e.core.project.IMavenProjectImportResult;
+import org.eclipse.m2e.tests.common.WorkspaceHelpers;
+import org.maven.ide.eclipse.perftests.SyntheticWorkspaceGenerator.PluginMix;
+
+
+/**
+ * Import of a fresh workspace with an empty local repository, with external libraries served by
+ * {@link LatencyRepositoryServer}. With serial downloads import time grows with number of libraries times latency.
+ * <p>
+ * Number of modules, each depending on one library, is controlled with {@code m2e.perftests.downloadModules} (200 by
+ * default), response latency with {@code m2e.perftests.latency} (50 ms by default).
+ */
+public class DownloadPerformanceTest extends AbstractPerformanceTestCase {
+
+  private static final int MODULES = Integer.getInteger("m2e.perftests.downloadModules", 200);
+
+  private static final long LATENCY = Long.getLong("m2e.perftests.latency", 50);
+
+  private LatencyRepositoryServer server;
+
+  protected void tearDown() throws Exception {
+    try {
+      if(server != null) {
+        server.stop();
+        server = null;
+      }
+    } finally {
+      super.tearDown();
+    }
+  }
+
+  public void testImportFromSlowRepository() throws Exception {
+    runImport(0);
+  }
+
+  /**
+   * Every module additionally depends on one of ten missing libraries, so the same missing artifacts are looked up
+   * again and again during one import.
+   */
+  public void testImportWithMissingArtifacts() throws Exception {
+    runImport(10);
+  }
+
+  private void runImport(int missingLibraries) throws Exception {
+    File basedir = new File("target/synthetic", getName()).getCanonicalFile();
+    SyntheticWorkspaceGenerator generator = new SyntheticWorkspaceGenerator(basedir, MODULES, 0, 1, PluginMix.POM);
+    generator.setLibraryCount(MODULES);
+    generator.setMissingLibraryCount(missingLibraries);
+
+    server = new LatencyRepositoryServer(generator.getRepositoryDirectory(), LATENCY);
+    server.start();
+    generator.setRepositoryUrl(server.getUrl());
+    generateWorkspace(generator);
+
+    System.out.println(getName() + "#warmup");
+    reset(generator);
+    assertImported(generator, importProjects(generator.getProjectsDirectory()), missingLibraries == 0);
+    assertServed();
+
+    phases.reset();
+    for(int i = 0; i < EXECUTION_COUNT; i++ ) {
+      System.out.println(getName() + "#" + i);
+
+      reset(generator);
+
+      startMeasuring();
+      long start = System.currentTimeMillis();
+      List<IMavenProjectImportResult> results = importProjects(generator.getProjectsDirectory());
+      long elapsed = System.currentTimeMillis() - start;
+      stopMeasuring();
+      waitForBackgroundJobs();
+
+      // sanity check
+      assertImported(generator, results, missingLibraries == 0);
+      assertTrue(server.getRequestCount() > 0);
+      assertServed();
+
+      System.out.println("download," + MODULES + "," + missingLibraries + "," + LATENCY + ","
+          + server.getRequestCount() + "," + server.getNotFoundCount() + "," + server.getMaxConcurrentRequests() + ","
+          + elapsed);
+    }
+
+    commitMeasurements();
+    assertPerformance();
+    assertMemory(generator.getProjectCount());
+  }
+
+  /**
+   * Deletes previously imported projects and the local repository, so the next import downloads everything again.
+   */
+  private void reset(SyntheticWorkspaceGenerator generator) throws Exception {
+    WorkspaceHelpers.cleanWorkspace();
+    waitForJobsToComplete();
+    FileUtils.deleteDirectory(generator.getLocalRepositoryDirectory());
+    generator.getLocalRepositoryDirectory().mkdirs();
+    generator.generateProjects();
+    server.reset();
+  }
+
+  private void assertServed() {
+    List<IOException> errors = server.getErrors();
+    assertTrue("Repository server failed: " + errors, errors.isEmpty());
+  }
+
+  private void assertImported(SyntheticWorkspaceGenerator generator, List<IMavenProjectImportResult> results,
+      boolean noErrors) throws Exception {
+    assertEquals(generator.getProjectCount(), results.size());
+    for(IMavenProjectImportResult result : results) {
+      assertNotNull(result.getProject());
+      if(noErrors) {
+        assertNoErrors(result.getProject());
+      }
+    }
+  }
+}
@@ -0,0 +1,84 @@
+/*******************************************************************************
+ * Copyright (c) 2008 Sonatype, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+
+package org.maven.ide.eclipse.perftests;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.m2e.core.MavenPlugin;
+import org.eclipse.m2e.core.embedder.ICallable;
+import org.eclipse.m2e.core.embedder.IMavenExecutionContext;
+import org.eclipse.m2e.core.internal.embedder.MavenExecutionContext;
+import org.eclipse.m2e.core.internal.embedder.MavenImpl;
+
+
+/**
+ * Overhead of entering an execution context. Every top-level {@code IMaven.execute} creates new execution request,
+ * Maven session and repository session, while calls made within an already entered context reuse them. The difference
+ * between the two scenarios is what batching saves per call. Number of calls is controlled with
+ * {@code m2e.perftests.contextCalls}, 1000 by default.
+ */
+public class ExecutionContextPerformanceTest extends AbstractPerformanceTestCase {
+
+  private static final int CALLS = Integer.getInteger("m2e.perftests.contextCalls", 1000);
+
+  private final MavenImpl maven = (MavenImpl) MavenPlugin.getMaven();
+
+  private final ICallable<Void> noop = new ICallable<Void>() {
+    public Void call(IMavenExecutionContext context, IProgressMonitor monitor) {
+      assertNotNull(context.getRepositorySession());
+      return null;
+    }
+  };
+
+  public void testTopLevelExecute() throws Exception {
+    run(false);
+  }
+
+  public void testReenteredExecute() throws Exception {
+    run(true);
+  }
+
+  private void run(boolean reenter) throws Exception {
+    System.out.println(getName() + "#warmup");
+    executeAll(reenter);
+
+    for(int i = 0; i < EXECUTION_COUNT; i++ ) {
+      System.out.println(getName() + "#" + i);
+
+      startMeasuring();
+      long start = System.nanoTime();
+      executeAll(reenter);
+      long elapsed = System.nanoTime() - start;
+      stopMeasuring();
+      System.out.println("executionContext," + reenter + "," + CALLS + "," + elapsed / 1000000 + ","
+          + elapsed / 1000 / CALLS);
+    }
+
+    commitMeasurements();
+    assertPerformance();
+  }
+
+  private void executeAll(boolean reenter) throws CoreException {
+    if(!reenter) {
+      for(int i = 0; i < CALLS; i++ ) {
+        maven.execute(noop, monitor);
+      }
+      return;
+    }
+    MavenExecutionContext context = maven.createExecutionContext();
+    context.execute(new ICallable<Void>() {
+      public Void call(IMavenExecutionContext context, IProgressMonitor monitor) throws CoreException {
+        for(int i = 0; i < CALLS; i++ ) {
+          context.execute(noop, monitor);
+        }
+        return null;
+      }
+    }, monitor);
+  }
+}
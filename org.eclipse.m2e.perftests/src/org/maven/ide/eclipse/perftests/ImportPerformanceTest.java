@@ -12,127 +12,26 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
 
-import org.codehaus.plexus.util.FileUtils;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
-import org.eclipse.core.resources.IWorkspace;
 import org.eclipse.core.resources.IWorkspaceRunnable;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
-import org.eclipse.m2e.core.MavenPlugin;
-import org.eclipse.m2e.core.core.MavenConsole;
-import org.eclipse.m2e.core.embedder.MavenModelManager;
-import org.eclipse.m2e.core.project.IMavenProjectChangedListener;
 import org.eclipse.m2e.core.project.IMavenProjectFacade;
 import org.eclipse.m2e.core.project.IMavenProjectImportResult;
-import org.eclipse.m2e.core.project.IProjectConfigurationManager;
-import org.eclipse.m2e.core.project.LocalProjectScanner;
-import org.eclipse.m2e.core.project.MavenProjectChangedEvent;
-import org.eclipse.m2e.core.project.MavenProjectInfo;
-import org.eclipse.m2e.core.project.MavenProjectManager;
 import org.eclipse.m2e.core.project.MavenUpdateRequest;
-import org.eclipse.m2e.core.project.ProjectImportConfiguration;
-import org.eclipse.m2e.tests.common.AbstractMavenProjectTestCase;
 import org.eclipse.m2e.tests.common.WorkspaceHelpers;
-import org.eclipse.test.internal.performance.InternalDimensions;
-import org.eclipse.test.internal.performance.InternalPerformanceMeter;
-import org.eclipse.test.internal.performance.PerformanceTestPlugin;
-import org.eclipse.test.internal.performance.db.DB;
-import org.eclipse.test.internal.performance.eval.AssertChecker;
-import org.eclipse.test.internal.performance.eval.Evaluator;
-import org.eclipse.test.internal.performance.eval.RelativeBandChecker;
-import org.eclipse.test.performance.Performance;
-import org.eclipse.test.performance.PerformanceMeter;
 
 
 /**
  * @author igor
  */
-public class ImportPerformanceTest extends AbstractMavenProjectTestCase {
-
-  private static final int EXECUTION_COUNT = 5;
-
-  protected PerformanceMeter fPerformanceMeter;
-
-  private IProjectConfigurationManager configurationManager;
-
-  private MavenModelManager modelManager;
-
-  private MavenConsole console;
-
-  private MavenProjectManager projectManager;
-
-  private List<MavenProjectChangedEvent> events = new ArrayList<MavenProjectChangedEvent>();
-
-  private IMavenProjectChangedListener mavenProjectChangeListener = new IMavenProjectChangedListener() {
-    public void mavenProjectChanged(MavenProjectChangedEvent[] events, IProgressMonitor monitor) {
-      ImportPerformanceTest.this.events.addAll(Arrays.asList(events));
-    }
-  };
-
-  protected void setUp() throws Exception {
-    super.setUp();
-
-    MavenPlugin mavenPlugin = MavenPlugin.getDefault();
-    configurationManager = mavenPlugin.getProjectConfigurationManager();
-    modelManager = mavenPlugin.getMavenModelManager();
-    console = mavenPlugin.getConsole();
-    projectManager = mavenPlugin.getMavenProjectManager();
-
-    Performance performance = Performance.getDefault();
-    fPerformanceMeter = performance.createPerformanceMeter(performance.getDefaultScenarioId(this));
-
-    projectManager.addMavenProjectChangedListener(mavenProjectChangeListener);
-  }
-
-  protected void tearDown() throws Exception {
-    projectManager.removeMavenProjectChangedListener(mavenProjectChangeListener);
-    fPerformanceMeter.dispose();
-    super.tearDown();
-  }
-
-  protected void startMeasuring() {
-    fPerformanceMeter.start();
-  }
-
-  protected void stopMeasuring() {
-    fPerformanceMeter.stop();
-  }
-
-  protected void commitMeasurements() {
-    fPerformanceMeter.commit();
-  }
-
-  protected void assertPerformance(AssertChecker... assertCheckers) {
-    Evaluator e = new Evaluator();
-    e.setAssertCheckers(assertCheckers);
-    e.evaluate(fPerformanceMeter);
-
-    String scenarioName = ((InternalPerformanceMeter) fPerformanceMeter).getScenarioName();
-
-    @SuppressWarnings("rawtypes")
-    Map failures = DB.queryFailure(scenarioName, PerformanceTestPlugin.getVariations());
-
-    if(failures != null) {
-      assertTrue(failures.values().toString(), failures.isEmpty());
-    }
-  }
-
-  protected void assertPerformance() {
-    assertPerformance(//
-        new RelativeBandChecker(InternalDimensions.CPU_TIME, 0.8f, 1.1f), //
-        new RelativeBandChecker(InternalDimensions.RCHAR, 0.8f, 1.1f), //
-        new RelativeBandChecker(InternalDimensions.WCHAR, 0.8f, 1.1f)//
-    );
-  }
+public class ImportPerformanceTest extends AbstractPerformanceTestCase {
 
   public void testImportEmptyWorkspace() throws Exception {
     // warm up
@@ -147,6 +46,7 @@ public class ImportPerformanceTest extends AbstractMavenProjectTestCase {
       assertNoErrors(result.getProject());
     }
 
+    phases.reset();
     for(int i = 0; i < EXECUTION_COUNT; i++ ) {
       System.out.println(getName() + "#" + i);
 
@@ -163,6 +63,7 @@ public class ImportPerformanceTest extends AbstractMavenProjectTestCase {
       results.addAll(importProjects(libs));
       results.addAll(importProjects(core));
       stopMeasuring();
+      waitForBackgroundJobs();
 
       // sanity check
       assertEquals(34 + 128, results.size());
@@ -174,6 +75,7 @@ public class ImportPerformanceTest extends AbstractMavenProjectTestCase {
 
     commitMeasurements();
     assertPerformance();
+    assertMemory(34 + 128);
   }
 
   public void testUpdateDependencies() throws Exception {
@@ -195,6 +97,7 @@ public class ImportPerformanceTest extends AbstractMavenProjectTestCase {
       assertNoErrors(facade.getProject());
     }
 
+    phases.reset();
     for(int i = 0; i < EXECUTION_COUNT; i++ ) {
       System.out.println(getName() + "#" + i);
 
@@ -222,7 +125,7 @@ public class ImportPerformanceTest extends AbstractMavenProjectTestCase {
           }
           MavenUpdateRequest request = new MavenUpdateRequest(false, false);
           request.addPomFile(testee.getPom());
-          projectManager.refresh(request, monitor);
+          refresh(request, monitor);
         }
       }, monitor);
       stopMeasuring();
@@ -239,34 +142,6 @@ public class ImportPerformanceTest extends AbstractMavenProjectTestCase {
 
     commitMeasurements();
     assertPerformance();
-  }
-
-  private List<IMavenProjectImportResult> importProjects(final File dir) throws CoreException {
-    final List<IMavenProjectImportResult> results = new ArrayList<IMavenProjectImportResult>();
-    workspace.run(new IWorkspaceRunnable() {
-      public void run(IProgressMonitor monitor) throws CoreException {
-        ProjectImportConfiguration configuration = new ProjectImportConfiguration();
-
-        LocalProjectScanner scanner = new LocalProjectScanner(workspace.getRoot().getLocation().toFile(), dir
-            .getAbsolutePath(), false, modelManager, console);
-        try {
-          scanner.run(monitor);
-        } catch(InterruptedException e) {
-          throw new CoreException(new Status(IStatus.ERROR, "pluginId", "Interrupted", e));
-        }
-
-        Set<MavenProjectInfo> projectInfos = configurationManager.collectProjects(scanner.getProjects());
-
-        results.addAll(configurationManager.importProjects(projectInfos, configuration, monitor));
-      }
-    }, plugin.getProjectConfigurationManager().getRule(), IWorkspace.AVOID_UPDATE, monitor);
-    return results;
-  }
-
-  private File getBasedir(String src, String name) throws IOException {
-    File dir = new File("target", name).getCanonicalFile();
-    FileUtils.deleteDirectory(dir);
-    FileUtils.copyDirectoryStructure(new File("projects/", src), dir);
-    return dir;
+    assertMemory(0);
   }
 }
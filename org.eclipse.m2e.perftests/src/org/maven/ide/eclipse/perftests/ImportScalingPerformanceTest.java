@@ -0,0 +1,377 @@
+/*******************************************************************************
+ * Copyright (c) 2008 Sonatype, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+
+package org.maven.ide.eclipse.perftests;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspaceRunnable;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.m2e.core.project.IMavenProjectFacade;
+import org.eclipse.m2e.core.project.IMavenProjectImportResult;
+import org.eclipse.m2e.core.project.MavenProjectChangedEvent;
+import org.eclipse.m2e.core.project.MavenUpdateRequest;
+import org.eclipse.m2e.tests.common.WorkspaceHelpers;
+import org.eclipse.test.performance.Performance;
+import org.maven.ide.eclipse.perftests.SyntheticWorkspaceGenerator.PluginMix;
+
+
+/**
+ * Import and refresh scenarios against {@link SyntheticWorkspaceGenerator} workspaces of increasing size. Each size is
+ * a separate performance scenario, so results can be plotted as a scaling curve.
+ * <p>
+ * Workspace shape is controlled with system properties {@code m2e.perftests.fanOut},
+ * {@code m2e.perftests.inheritanceDepth} and {@code m2e.perftests.pluginMix}. Scenarios with more modules than
+ * {@code m2e.perftests.maxModules} (1000 by default) are skipped. Single pom refresh scenarios, which show whether
+ * finding affected projects stays flat as the workspace grows, use {@code m2e.perftests.maxRefreshModules} (5000 by
+ * default) instead, so all of their sizes run by default.
+ */
+public class ImportScalingPerformanceTest extends AbstractPerformanceTestCase {
+
+  private static final int MAX_MODULES = Integer.getInteger("m2e.perftests.maxModules", 1000);
+
+  private static final int MAX_REFRESH_MODULES = Integer.getInteger("m2e.perftests.maxRefreshModules", 5000);
+
+  private static final int FAN_OUT = Integer.getInteger("m2e.perftests.fanOut", 5);
+
+  private static final int INHERITANCE_DEPTH = Integer.getInteger("m2e.perftests.inheritanceDepth", 2);
+
+  private static final PluginMix PLUGIN_MIX = PluginMix.valueOf(System.getProperty("m2e.perftests.pluginMix",
+      PluginMix.MIXED.name()));
+
+  protected String getScenarioId(Performance performance) {
+    // workspaces of different shape must not share reference data
+    return performance.getDefaultScenarioId(this, FAN_OUT + "-" + INHERITANCE_DEPTH + "-" + PLUGIN_MIX);
+  }
+
+  public void testImport0100() throws Exception {
+    runImport(100);
+  }
+
+  public void testImport0500() throws Exception {
+    runImport(500);
+  }
+
+  public void testImport1000() throws Exception {
+    runImport(1000);
+  }
+
+  public void testImport2500() throws Exception {
+    runImport(2500);
+  }
+
+  public void testImport5000() throws Exception {
+    runImport(5000);
+  }
+
+  public void testRefresh0100() throws Exception {
+    runRefresh(100);
+  }
+
+  public void testRefresh0500() throws Exception {
+    runRefresh(500);
+  }
+
+  public void testRefresh1000() throws Exception {
+    runRefresh(1000);
+  }
+
+  public void testRefresh2500() throws Exception {
+    runRefresh(2500);
+  }
+
+  public void testRefresh5000() throws Exception {
+    runRefresh(5000);
+  }
+
+  public void testUpdateAll0100() throws Exception {
+    runUpdateAll(100);
+  }
+
+  public void testUpdateAll0500() throws Exception {
+    runUpdateAll(500);
+  }
+
+  public void testUpdateAll1000() throws Exception {
+    runUpdateAll(1000);
+  }
+
+  public void testUpdateAll2500() throws Exception {
+    runUpdateAll(2500);
+  }
+
+  public void testUpdateAll5000() throws Exception {
+    runUpdateAll(5000);
+  }
+
+  public void testNoChangeRefresh0100() throws Exception {
+    runNoChangeRefresh(100);
+  }
+
+  public void testNoChangeRefresh0500() throws Exception {
+    runNoChangeRefresh(500);
+  }
+
+  public void testNoChangeRefresh1000() throws Exception {
+    runNoChangeRefresh(1000);
+  }
+
+  public void testNoChangeRefresh2500() throws Exception {
+    runNoChangeRefresh(2500);
+  }
+
+  public void testNoChangeRefresh5000() throws Exception {
+    runNoChangeRefresh(5000);
+  }
+
+  private void runImport(int size) throws Exception {
+    SyntheticWorkspaceGenerator generator = generate(size);
+    if(generator == null) {
+      return;
+    }
+
+    // warm up, also populates local repository
+    System.out.println(getName() + "#warmup");
+    assertImported(generator, importProjects(generator.getProjectsDirectory()));
+
+    phases.reset();
+    for(int i = 0; i < EXECUTION_COUNT; i++ ) {
+      System.out.println(getName() + "#" + i);
+
+      // workspace cleanup
+      WorkspaceHelpers.cleanWorkspace();
+      waitForJobsToComplete();
+      generator.generateProjects();
+      events.clear();
+
+      startMeasuring();
+      long start = System.currentTimeMillis();
+      List<IMavenProjectImportResult> results = importProjects(generator.getProjectsDirectory());
+      long elapsed = System.currentTimeMillis() - start;
+      stopMeasuring();
+      report("import", size, elapsed);
+      waitForBackgroundJobs();
+
+      // sanity check
+      assertImported(generator, results);
+      assertEquals(generator.getProjectCount(), events.size());
+    }
+
+    commitMeasurements();
+    assertPerformance();
+    assertMemory(generator.getProjectCount());
+  }
+
+  private void runRefresh(int size) throws Exception {
+    final SyntheticWorkspaceGenerator generator = generate(size, MAX_REFRESH_MODULES,
+        "m2e.perftests.maxRefreshModules");
+    if(generator == null) {
+      return;
+    }
+
+    System.out.println(getName() + "#setup");
+    assertImported(generator, importProjects(generator.getProjectsDirectory()));
+
+    final IMavenProjectFacade testee = projectManager.getMavenProject(SyntheticWorkspaceGenerator.GROUP_ID,
+        generator.getProbeModule(), SyntheticWorkspaceGenerator.VERSION);
+    assertNotNull(testee);
+
+    System.out.println(getName() + "#warmup");
+    MavenUpdateRequest request = new MavenUpdateRequest(false, false);
+    request.addPomFile(testee.getPom());
+    projectManager.refresh(request, monitor);
+
+    phases.reset();
+    for(int i = 0; i < EXECUTION_COUNT; i++ ) {
+      System.out.println(getName() + "#" + i);
+
+      events.clear();
+
+      startMeasuring();
+      long start = System.currentTimeMillis();
+      workspace.run(new IWorkspaceRunnable() {
+        public void run(IProgressMonitor monitor) throws CoreException {
+          IProject project = testee.getProject();
+          try {
+            InputStream contents = project.getFile(SyntheticWorkspaceGenerator.PROBE_POM).getContents();
+            try {
+              project.getFile("pom.xml").setContents(contents, IResource.FORCE, monitor);
+            } finally {
+              contents.close();
+            }
+          } catch(IOException e) {
+            throw new CoreException(new Status(IStatus.ERROR, "pluginId", "Interrupted", e));
+          }
+          MavenUpdateRequest request = new MavenUpdateRequest(false, false);
+          request.addPomFile(testee.getPom());
+          refresh(request, monitor);
+        }
+      }, monitor);
+      long elapsed = System.currentTimeMillis() - start;
+      stopMeasuring();
+      report("refresh", size, elapsed);
+
+      // sanity check
+      IMavenProjectFacade[] projects = projectManager.getProjects();
+      assertEquals(generator.getProjectCount(), projects.length);
+      assertFalse(events.isEmpty());
+    }
+
+    commitMeasurements();
+    assertPerformance();
+    assertMemory(0);
+  }
+
+  /**
+   * Forced registry refresh of all workspace poms, i.e. what "Update Project" on the whole workspace does before
+   * project configuration. This is the scenario that benefits from resolving independent projects concurrently.
+   */
+  private void runUpdateAll(int size) throws Exception {
+    SyntheticWorkspaceGenerator generator = generate(size);
+    if(generator == null) {
+      return;
+    }
+
+    System.out.println(getName() + "#setup");
+    assertImported(generator, importProjects(generator.getProjectsDirectory()));
+    waitForJobsToComplete();
+
+    IProject[] projects = workspace.getRoot().getProjects();
+    assertEquals(generator.getProjectCount(), projects.length);
+
+    System.out.println(getName() + "#warmup");
+    projectManager.refresh(new MavenUpdateRequest(projects, false, true), monitor);
+
+    phases.reset();
+    for(int i = 0; i < EXECUTION_COUNT; i++ ) {
+      System.out.println(getName() + "#" + i);
+
+      events.clear();
+
+      startMeasuring();
+      long start = System.currentTimeMillis();
+      refresh(new MavenUpdateRequest(projects, false, true), monitor);
+      long elapsed = System.currentTimeMillis() - start;
+      stopMeasuring();
+      report("updateAll", size, elapsed);
+      waitForBackgroundJobs();
+
+      // sanity check, every project is refreshed exactly once
+      assertEquals(generator.getProjectCount(), events.size());
+      assertEquals(generator.getProjectCount(), projectManager.getProjects().length);
+    }
+
+    commitMeasurements();
+    assertPerformance();
+    assertMemory(generator.getProjectCount());
+  }
+
+  /**
+   * Registry refresh of all workspace poms after their timestamps changed but content did not, e.g. after a branch
+   * switch back and forth. Ideally no effective model needs to be rebuilt.
+   */
+  private void runNoChangeRefresh(int size) throws Exception {
+    SyntheticWorkspaceGenerator generator = generate(size);
+    if(generator == null) {
+      return;
+    }
+
+    System.out.println(getName() + "#setup");
+    assertImported(generator, importProjects(generator.getProjectsDirectory()));
+    waitForJobsToComplete();
+
+    final IProject[] projects = workspace.getRoot().getProjects();
+    assertEquals(generator.getProjectCount(), projects.length);
+
+    System.out.println(getName() + "#warmup");
+    touchPoms(projects);
+    projectManager.refresh(new MavenUpdateRequest(projects, false, false), monitor);
+
+    phases.reset();
+    for(int i = 0; i < EXECUTION_COUNT; i++ ) {
+      System.out.println(getName() + "#" + i);
+
+      touchPoms(projects);
+      events.clear();
+
+      startMeasuring();
+      long start = System.currentTimeMillis();
+      refresh(new MavenUpdateRequest(projects, false, false), monitor);
+      long elapsed = System.currentTimeMillis() - start;
+      stopMeasuring();
+      report("noChangeRefresh", size, elapsed);
+      waitForBackgroundJobs();
+
+      // sanity check, unchanged poms do not change any project
+      for(MavenProjectChangedEvent event : events) {
+        assertEquals(MavenProjectChangedEvent.FLAG_NONE, event.getFlags());
+      }
+      assertEquals(generator.getProjectCount(), projectManager.getProjects().length);
+    }
+
+    commitMeasurements();
+    assertPerformance();
+    assertMemory(generator.getProjectCount());
+  }
+
+  private void touchPoms(final IProject[] projects) throws CoreException {
+    workspace.run(new IWorkspaceRunnable() {
+      public void run(IProgressMonitor monitor) throws CoreException {
+        for(IProject project : projects) {
+          IFile pom = project.getFile("pom.xml");
+          pom.setLocalTimeStamp(pom.getLocalTimeStamp() + 1000L);
+          pom.touch(monitor);
+        }
+      }
+    }, monitor);
+  }
+
+  /**
+   * @return generated workspace of the given size or {@code null} if the size exceeds {@link #MAX_MODULES}
+   */
+  private SyntheticWorkspaceGenerator generate(int size) throws Exception {
+    return generate(size, MAX_MODULES, "m2e.perftests.maxModules");
+  }
+
+  /**
+   * @return generated workspace of the given size or {@code null} if the size exceeds {@code maxModules}
+   */
+  private SyntheticWorkspaceGenerator generate(int size, int maxModules, String property) throws Exception {
+    if(size > maxModules) {
+      System.out.println(getName() + " skipped, " + size + " modules exceeds " + property + "=" + maxModules);
+      return null;
+    }
+    File basedir = new File("target/synthetic", getName()).getCanonicalFile();
+    return generateWorkspace(new SyntheticWorkspaceGenerator(basedir, size, FAN_OUT, INHERITANCE_DEPTH, PLUGIN_MIX));
+  }
+
+  private void assertImported(SyntheticWorkspaceGenerator generator, List<IMavenProjectImportResult> results)
+      throws CoreException {
+    assertEquals(generator.getProjectCount(), results.size());
+    for(IMavenProjectImportResult result : results) {
+      assertNoErrors(result.getProject());
+    }
+  }
+
+  /**
+   * Prints one line per measurement in a format that is easy to turn into a scaling curve.
+   */
+  private void report(String scenario, int size, long elapsed) {
+    System.out.println("scaling," + scenario + "," + FAN_OUT + "," + INHERITANCE_DEPTH + "," + PLUGIN_MIX + ","
+        + size + "," + elapsed);
+  }
+}
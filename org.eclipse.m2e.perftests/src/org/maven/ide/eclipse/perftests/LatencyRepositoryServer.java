@@ -0,0 +1,205 @@
+/*******************************************************************************
+ * Copyright (c) 2008 Sonatype, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+
+package org.maven.ide.eclipse.perftests;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.net.URLDecoder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * Minimal HTTP/1.1 server that serves a repository directory with a fixed delay before every response, as a stand-in
+ * for a remote mirror. Only GET and HEAD are supported and every connection is closed after one response.
+ * <p>
+ * Counts requests and the maximum number of requests served at the same time, the latter shows whether artifacts are
+ * downloaded in parallel. Failures to serve a request are recorded for the test to check, see {@link #getErrors()}.
+ */
+public class LatencyRepositoryServer {
+
+  private final File basedir;
+
+  private final long latency;
+
+  private final AtomicInteger requests = new AtomicInteger();
+
+  private final AtomicInteger notFound = new AtomicInteger();
+
+  private final AtomicInteger active = new AtomicInteger();
+
+  private final AtomicInteger maxActive = new AtomicInteger();
+
+  private final List<IOException> errors = Collections.synchronizedList(new ArrayList<IOException>());
+
+  private ServerSocket serverSocket;
+
+  private ExecutorService executor;
+
+  /**
+   * @param basedir repository directory to serve
+   * @param latency delay of every response in milliseconds
+   */
+  public LatencyRepositoryServer(File basedir, long latency) {
+    this.basedir = basedir;
+    this.latency = latency;
+  }
+
+  public void start() throws IOException {
+    serverSocket = new ServerSocket(0, 50, InetAddress.getByName("127.0.0.1"));
+    executor = Executors.newCachedThreadPool();
+    Thread acceptor = new Thread("LatencyRepositoryServer acceptor") {
+      public void run() {
+        try {
+          while(true) {
+            final Socket socket = serverSocket.accept();
+            executor.execute(new Runnable() {
+              public void run() {
+                serve(socket);
+              }
+            });
+          }
+        } catch(IOException e) {
+          // server socket closed
+        }
+      }
+    };
+    acceptor.setDaemon(true);
+    acceptor.start();
+  }
+
+  public void stop() throws Exception {
+    serverSocket.close();
+    executor.shutdownNow();
+    executor.awaitTermination(10, TimeUnit.SECONDS);
+  }
+
+  public String getUrl() {
+    return "http://127.0.0.1:" + serverSocket.getLocalPort() + "/";
+  }
+
+  public int getRequestCount() {
+    return requests.get();
+  }
+
+  /**
+   * @return number of requests answered with 404, i.e. lookups of missing artifacts and metadata
+   */
+  public int getNotFoundCount() {
+    return notFound.get();
+  }
+
+  public int getMaxConcurrentRequests() {
+    return maxActive.get();
+  }
+
+  /**
+   * @return failures to serve a request, other than clients closing the connection
+   */
+  public List<IOException> getErrors() {
+    synchronized(errors) {
+      return new ArrayList<IOException>(errors);
+    }
+  }
+
+  public void reset() {
+    errors.clear();
+    requests.set(0);
+    notFound.set(0);
+    maxActive.set(0);
+  }
+
+  void serve(Socket socket) {
+    try {
+      try {
+        BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), "ISO-8859-1"));
+        String requestLine = in.readLine();
+        if(requestLine == null) {
+          return;
+        }
+        // skip headers
+        String header;
+        do {
+          header = in.readLine();
+        } while(header != null && header.length() > 0);
+
+        requests.incrementAndGet();
+        int current = active.incrementAndGet();
+        try {
+          int max;
+          do {
+            max = maxActive.get();
+          } while(current > max && !maxActive.compareAndSet(max, current));
+
+          Thread.sleep(latency);
+          respond(socket.getOutputStream(), requestLine.split(" "));
+        } finally {
+          active.decrementAndGet();
+        }
+      } finally {
+        socket.close();
+      }
+    } catch(SocketException e) {
+      // client went away
+    } catch(InterruptedException e) {
+      // server stopped
+    } catch(IOException e) {
+      errors.add(e);
+    }
+  }
+
+  private void respond(OutputStream out, String[] request) throws IOException {
+    String method = request[0];
+    if(request.length < 2 || !("GET".equals(method) || "HEAD".equals(method))) {
+      writeStatus(out, "405 Method Not Allowed", 0);
+      return;
+    }
+    String path = URLDecoder.decode(request[1], "UTF-8");
+    File file = new File(basedir, path);
+    if(path.contains("..") || !file.isFile()) {
+      notFound.incrementAndGet();
+      writeStatus(out, "404 Not Found", 0);
+      return;
+    }
+    writeStatus(out, "200 OK", file.length());
+    if("GET".equals(method)) {
+      InputStream is = new FileInputStream(file);
+      try {
+        byte[] buf = new byte[8192];
+        int n;
+        while((n = is.read(buf)) != -1) {
+          out.write(buf, 0, n);
+        }
+      } finally {
+        is.close();
+      }
+    }
+    out.flush();
+  }
+
+  private static void writeStatus(OutputStream out, String status, long length) throws IOException {
+    String headers = "HTTP/1.1 " + status + "\r\nContent-Length: " + length + "\r\nConnection: close\r\n\r\n";
+    out.write(headers.getBytes("ISO-8859-1"));
+    out.flush();
+  }
+}
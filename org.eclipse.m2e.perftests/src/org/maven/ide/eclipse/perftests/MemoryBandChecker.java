@@ -0,0 +1,55 @@
+/*******************************************************************************
+ * Copyright (c) 2008 Sonatype, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+
+package org.maven.ide.eclipse.perftests;
+
+import java.util.Properties;
+
+
+/**
+ * Memory counterpart of RelativeBandChecker. Fails if a {@link MemoryMeter} value is outside of
+ * {@code [lowerBand * reference, upperBand * reference]}.
+ */
+public class MemoryBandChecker {
+
+  private final String key;
+
+  private final float lowerBand;
+
+  private final float upperBand;
+
+  /**
+   * @param key one of {@link MemoryMeter} property names
+   */
+  public MemoryBandChecker(String key, float lowerBand, float upperBand) {
+    this.key = key;
+    this.lowerBand = lowerBand;
+    this.upperBand = upperBand;
+  }
+
+  /**
+   * @return failure message or {@code null} if the value is within band or either value is missing
+   */
+  public String check(Properties reference, Properties current) {
+    String referenceValue = reference.getProperty(key);
+    String currentValue = current.getProperty(key);
+    if(referenceValue == null || currentValue == null) {
+      return null;
+    }
+    long ref = Long.parseLong(referenceValue);
+    long value = Long.parseLong(currentValue);
+    if(ref <= 0) {
+      // retained heap growth can legitimately be zero or negative, nothing to compare to
+      return null;
+    }
+    if(value < ref * lowerBand || value > ref * upperBand) {
+      return key + ": " + value + " is outside of [" + lowerBand + ", " + upperBand + "] band of reference " + ref;
+    }
+    return null;
+  }
+}
@@ -0,0 +1,207 @@
+/*******************************************************************************
+ * Copyright (c) 2008 Sonatype, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+
+package org.maven.ide.eclipse.perftests;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+
+/**
+ * Measures heap allocated by all live threads and heap retained after full GC between {@link #start()} and
+ * {@link #stop()}. Values are averaged over all start/stop samples.
+ * <p>
+ * Allocation of threads that terminate between start and stop is not accounted, allocation of threads started after
+ * start is accounted from zero. Per-thread allocation counters require HotSpot compatible JVM, on other JVMs only
+ * retained heap is measured.
+ */
+public class MemoryMeter {
+
+  public static final String ALLOCATED = "allocated";
+
+  public static final String RETAINED = "retained";
+
+  public static final String ALLOCATED_PER_MODULE = "allocatedPerModule";
+
+  public static final String RETAINED_PER_MODULE = "retainedPerModule";
+
+  private static final int MAX_GC_ATTEMPTS = 10;
+
+  private static final boolean ALLOCATION_COUNTERS = hasAllocationCounters();
+
+  private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+  private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+  private Map<Long, Long> startAllocated;
+
+  private long startRetained;
+
+  private long allocated;
+
+  private long retained;
+
+  private int samples;
+
+  private final Map<String, Long> allocatedByThread = new TreeMap<String, Long>();
+
+  public void start() {
+    startRetained = getRetainedHeap();
+    startAllocated = snapshotAllocatedBytes();
+  }
+
+  public void stop() {
+    if(startAllocated == null) {
+      throw new IllegalStateException("Memory meter was not started");
+    }
+    Map<Long, Long> endAllocated = snapshotAllocatedBytes();
+    for(Map.Entry<Long, Long> entry : endAllocated.entrySet()) {
+      Long start = startAllocated.get(entry.getKey());
+      long delta = entry.getValue().longValue() - (start != null ? start.longValue() : 0);
+      if(delta > 0) {
+        allocated += delta;
+        String name = getThreadName(entry.getKey().longValue());
+        Long total = allocatedByThread.get(name);
+        allocatedByThread.put(name, Long.valueOf(delta + (total != null ? total.longValue() : 0)));
+      }
+    }
+    retained += getRetainedHeap() - startRetained;
+    samples++ ;
+    startAllocated = null;
+  }
+
+  public void reset() {
+    startAllocated = null;
+    allocated = 0;
+    retained = 0;
+    samples = 0;
+    allocatedByThread.clear();
+  }
+
+  /**
+   * @return average number of bytes allocated by all threads per sample
+   */
+  public long getAllocatedBytes() {
+    return samples > 0 ? allocated / samples : 0;
+  }
+
+  /**
+   * @return average growth of heap retained after full GC per sample, may be negative
+   */
+  public long getRetainedBytes() {
+    return samples > 0 ? retained / samples : 0;
+  }
+
+  /**
+   * @return average number of bytes allocated per sample, keyed by thread name. Threads with the same name, like job
+   *         workers, are summed.
+   */
+  public Map<String, Long> getAllocatedBytesByThread() {
+    Map<String, Long> result = new TreeMap<String, Long>();
+    for(Map.Entry<String, Long> entry : allocatedByThread.entrySet()) {
+      result.put(entry.getKey(), Long.valueOf(entry.getValue().longValue() / Math.max(1, samples)));
+    }
+    return result;
+  }
+
+  /**
+   * Returns measurements as properties suitable for {@link MemoryBandChecker}.
+   *
+   * @param moduleCount number of modules imported per sample, used to compute per-module values
+   */
+  public Properties toProperties(int moduleCount) {
+    Properties properties = new Properties();
+    properties.setProperty(ALLOCATED, Long.toString(getAllocatedBytes()));
+    properties.setProperty(RETAINED, Long.toString(getRetainedBytes()));
+    if(moduleCount > 0) {
+      properties.setProperty(ALLOCATED_PER_MODULE, Long.toString(getAllocatedBytes() / moduleCount));
+      properties.setProperty(RETAINED_PER_MODULE, Long.toString(getRetainedBytes() / moduleCount));
+    }
+    return properties;
+  }
+
+  public String toString() {
+    StringBuilder sb = new StringBuilder();
+    sb.append("allocated=").append(getAllocatedBytes() / 1024).append("KB retained=")
+        .append(getRetainedBytes() / 1024).append("KB\n");
+    for(Map.Entry<String, Long> entry : getAllocatedBytesByThread().entrySet()) {
+      sb.append("  ").append(entry.getKey()).append(": ").append(entry.getValue().longValue() / 1024).append("KB\n");
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Runs GC until used heap stops shrinking and returns used heap.
+   */
+  long getRetainedHeap() {
+    long used = Long.MAX_VALUE;
+    for(int i = 0; i < MAX_GC_ATTEMPTS; i++ ) {
+      System.gc();
+      System.runFinalization();
+      long current = memory.getHeapMemoryUsage().getUsed();
+      if(current >= used) {
+        return current;
+      }
+      used = current;
+    }
+    return used;
+  }
+
+  private Map<Long, Long> snapshotAllocatedBytes() {
+    Map<Long, Long> result = new HashMap<Long, Long>();
+    if(ALLOCATION_COUNTERS) {
+      AllocationCounters.snapshot(threads, result);
+    }
+    return result;
+  }
+
+  /**
+   * com.sun.management is only referenced from {@link AllocationCounters}, which is not loaded unless this check
+   * succeeds.
+   */
+  private static boolean hasAllocationCounters() {
+    try {
+      Class<?> type = Class.forName("com.sun.management.ThreadMXBean");
+      return type.isInstance(ManagementFactory.getThreadMXBean());
+    } catch(ClassNotFoundException e) {
+      return false;
+    } catch(LinkageError e) {
+      return false;
+    }
+  }
+
+  /**
+   * Per-thread allocation counters of HotSpot compatible JVMs.
+   */
+  private static class AllocationCounters {
+    static void snapshot(ThreadMXBean threads, Map<Long, Long> result) {
+      com.sun.management.ThreadMXBean sunThreads = (com.sun.management.ThreadMXBean) threads;
+      if(!sunThreads.isThreadAllocatedMemorySupported() || !sunThreads.isThreadAllocatedMemoryEnabled()) {
+        return;
+      }
+      long[] ids = threads.getAllThreadIds();
+      long[] bytes = sunThreads.getThreadAllocatedBytes(ids);
+      for(int i = 0; i < ids.length; i++ ) {
+        if(bytes[i] >= 0) {
+          result.put(Long.valueOf(ids[i]), Long.valueOf(bytes[i]));
+        }
+      }
+    }
+  }
+
+  private String getThreadName(long id) {
+    ThreadInfo info = threads.getThreadInfo(id);
+    return info != null ? info.getThreadName() : "<terminated>";
+  }
+}
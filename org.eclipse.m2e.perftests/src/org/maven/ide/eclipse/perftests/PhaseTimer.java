@@ -0,0 +1,143 @@
+/*******************************************************************************
+ * Copyright (c) 2008 Sonatype, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+
+package org.maven.ide.eclipse.perftests;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+
+/**
+ * Accumulates wall and CPU time per named phase of import and refresh. Phases are timed on the calling thread, CPU
+ * time is therefore only meaningful for work done synchronously by that thread.
+ * <p>
+ * Not thread safe.
+ */
+public class PhaseTimer {
+
+  /** LocalProjectScanner run */
+  public static final String SCAN = "scan";
+
+  /** IProjectConfigurationManager.collectProjects */
+  public static final String COLLECT = "collect";
+
+  /** IProjectConfigurationManager.importProjects, sum of {@link #REGISTRY} and {@link #CONFIGURE} */
+  public static final String IMPORT = "import";
+
+  /**
+   * Project registry refresh, i.e. model read, dependency resolution and lifecycle mapping, up to the last
+   * MavenProjectChangedEvent
+   */
+  public static final String REGISTRY = "registry";
+
+  /**
+   * Project configurator execution, classpath container update and marker creation after the last
+   * MavenProjectChangedEvent
+   */
+  public static final String CONFIGURE = "configure";
+
+  /** ProjectRegistryManager.refresh of one or more poms */
+  public static final String REFRESH = "refresh";
+
+  /** Background jobs scheduled by import or refresh, i.e. builds and deferred marker updates */
+  public static final String JOBS = "jobs";
+
+  private static final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+  private final Map<String, long[]> phases = new LinkedHashMap<String, long[]>();
+
+  private final Map<String, long[]> running = new LinkedHashMap<String, long[]>();
+
+  public void start(String phase) {
+    running.put(phase, now());
+  }
+
+  public void stop(String phase) {
+    long[] start = running.remove(phase);
+    if(start == null) {
+      throw new IllegalStateException("Phase was not started " + phase);
+    }
+    long[] end = now();
+    record(phase, end[0] - start[0], end[1] - start[1]);
+  }
+
+  /**
+   * Records externally measured phase duration, for example one derived from event timestamps.
+   *
+   * @param wall wall time in nanoseconds
+   * @param cpu CPU time of the measuring thread in nanoseconds
+   */
+  public void record(String phase, long wall, long cpu) {
+    long[] total = phases.get(phase);
+    if(total == null) {
+      total = new long[3];
+      phases.put(phase, total);
+    }
+    total[0] += wall;
+    total[1] += cpu;
+    total[2]++ ;
+  }
+
+  /**
+   * Returns current wall time and current thread CPU time, both in nanoseconds.
+   */
+  public static long[] now() {
+    long cpu = threads.isCurrentThreadCpuTimeSupported() ? threads.getCurrentThreadCpuTime() : 0;
+    return new long[] {System.nanoTime(), cpu};
+  }
+
+  public void reset() {
+    phases.clear();
+    running.clear();
+  }
+
+  public String[] getPhases() {
+    return phases.keySet().toArray(new String[phases.size()]);
+  }
+
+  /**
+   * @return number of times the phase was recorded
+   */
+  public int getCount(String phase) {
+    long[] total = phases.get(phase);
+    return total != null ? (int) total[2] : 0;
+  }
+
+  /**
+   * @return average wall time of one recorded occurrence of the phase in milliseconds
+   */
+  public long getWallTime(String phase) {
+    return average(phase, 0);
+  }
+
+  /**
+   * @return average CPU time of one recorded occurrence of the phase in milliseconds
+   */
+  public long getCpuTime(String phase) {
+    return average(phase, 1);
+  }
+
+  private long average(String phase, int index) {
+    long[] total = phases.get(phase);
+    if(total == null || total[2] == 0) {
+      return 0;
+    }
+    return total[index] / total[2] / 1000000L;
+  }
+
+  public String toString() {
+    StringBuilder sb = new StringBuilder();
+    for(String phase : phases.keySet()) {
+      sb.append(phase).append(": wall=").append(getWallTime(phase)).append("ms cpu=").append(getCpuTime(phase))
+          .append("ms count=").append(getCount(phase)).append('\n');
+    }
+    return sb.toString();
+  }
+}
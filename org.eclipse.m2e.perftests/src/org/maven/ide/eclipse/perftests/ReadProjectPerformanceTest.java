@@ -0,0 +1,77 @@
+/*******************************************************************************
+ * Copyright (c) 2008 Sonatype, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+
+package org.maven.ide.eclipse.perftests;
+
+import java.io.File;
+
+import org.apache.maven.execution.MavenExecutionResult;
+import org.apache.maven.project.ProjectBuildingRequest;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.m2e.core.MavenPlugin;
+import org.eclipse.m2e.core.embedder.ICallable;
+import org.eclipse.m2e.core.embedder.IMaven;
+import org.eclipse.m2e.core.embedder.IMavenExecutionContext;
+import org.maven.ide.eclipse.perftests.SyntheticWorkspaceGenerator.PluginMix;
+
+
+/**
+ * Reads models of all children of one parent within one execution context, without registry and without dependency
+ * resolution. Every child inherits from the same parent, so time per child shows how much of the parent model work is
+ * repeated per child. Number of children is controlled with {@code m2e.perftests.readModules}, 1000 by default.
+ */
+public class ReadProjectPerformanceTest extends AbstractPerformanceTestCase {
+
+  private static final int MODULES = Integer.getInteger("m2e.perftests.readModules", 1000);
+
+  private final IMaven maven = MavenPlugin.getMaven();
+
+  public void testReadChildrenOfOneParent() throws Exception {
+    File basedir = new File("target/synthetic", getName()).getCanonicalFile();
+    SyntheticWorkspaceGenerator generator = generateWorkspace(new SyntheticWorkspaceGenerator(basedir, MODULES, 0, 1,
+        PluginMix.CONFIGURED));
+
+    final File[] poms = new File[MODULES];
+    for(int i = 0; i < poms.length; i++ ) {
+      poms[i] = new File(generator.getProjectsDirectory(), SyntheticWorkspaceGenerator.moduleId(i + 1) + "/pom.xml");
+    }
+
+    System.out.println(getName() + "#warmup");
+    readAll(poms);
+
+    for(int i = 0; i < EXECUTION_COUNT; i++ ) {
+      System.out.println(getName() + "#" + i);
+
+      startMeasuring();
+      long start = System.currentTimeMillis();
+      readAll(poms);
+      long elapsed = System.currentTimeMillis() - start;
+      stopMeasuring();
+      System.out.println("readProject," + MODULES + "," + elapsed + "," + (float) elapsed / MODULES);
+    }
+
+    commitMeasurements();
+    assertPerformance();
+    assertMemory(MODULES);
+  }
+
+  private void readAll(final File[] poms) throws CoreException {
+    maven.execute(new ICallable<Void>() {
+      public Void call(IMavenExecutionContext context, IProgressMonitor monitor) throws CoreException {
+        for(File pom : poms) {
+          ProjectBuildingRequest request = context.newProjectBuildingRequest();
+          request.setResolveDependencies(false);
+          MavenExecutionResult result = maven.readMavenProject(pom, request);
+          assertFalse(pom + " " + result.getExceptions(), result.hasExceptions());
+        }
+        return null;
+      }
+    }, monitor);
+  }
+}
@@ -0,0 +1,100 @@
+/*******************************************************************************
+ * Copyright (c) 2008 Sonatype, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+
+package org.maven.ide.eclipse.perftests;
+
+import java.io.File;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.m2e.core.project.IMavenProjectFacade;
+import org.eclipse.m2e.core.project.MavenProjectChangedEvent;
+import org.maven.ide.eclipse.perftests.SyntheticWorkspaceGenerator.PluginMix;
+
+
+/**
+ * Storm of pom.xml changes, like a git checkout or a mass pom rewrite, each change in its own workspace operation.
+ * Measures time until the registry settles and prints the number of refresh passes the storm caused.
+ * <p>
+ * Workspace size and number of changed poms are controlled with {@code m2e.perftests.burstModules} (500 by default)
+ * and {@code m2e.perftests.burstSize} (100 by default). Modules have pom packaging, so builds triggered by the changes
+ * do not dominate the measurement.
+ */
+public class RefreshBurstPerformanceTest extends AbstractPerformanceTestCase {
+
+  private static final int MODULES = Integer.getInteger("m2e.perftests.burstModules", 500);
+
+  private static final int BURST_SIZE = Integer.getInteger("m2e.perftests.burstSize", 100);
+
+  public void testPomChangeBurst() throws Exception {
+    File basedir = new File("target/synthetic", getName()).getCanonicalFile();
+    SyntheticWorkspaceGenerator generator = generateWorkspace(new SyntheticWorkspaceGenerator(basedir, MODULES, 5, 2,
+        PluginMix.POM));
+
+    System.out.println(getName() + "#setup");
+    importProjects(generator.getProjectsDirectory());
+    waitForJobsToComplete();
+
+    // registry refresh job only reacts to resource changes with autobuild on
+    setAutoBuilding(true);
+    waitForJobsToComplete();
+
+    IFile[] poms = new IFile[Math.min(BURST_SIZE, MODULES)];
+    for(int i = 0; i < poms.length; i++ ) {
+      String artifactId = SyntheticWorkspaceGenerator.moduleId(1 + i * MODULES / poms.length);
+      IMavenProjectFacade facade = projectManager.getMavenProject(SyntheticWorkspaceGenerator.GROUP_ID, artifactId,
+          SyntheticWorkspaceGenerator.VERSION);
+      assertNotNull(artifactId, facade);
+      poms[i] = facade.getPom();
+    }
+
+    System.out.println(getName() + "#warmup");
+    burst(poms);
+    waitForJobsToComplete();
+
+    phases.reset();
+    int passes = 0;
+    for(int i = 0; i < EXECUTION_COUNT; i++ ) {
+      System.out.println(getName() + "#" + i);
+
+      events.clear();
+      notifications = 0;
+
+      startMeasuring();
+      burst(poms);
+      waitForBackgroundJobs();
+      stopMeasuring();
+
+      // sanity check, every changed project was refreshed at least once
+      Set<IProject> refreshed = new HashSet<IProject>();
+      for(MavenProjectChangedEvent event : events) {
+        refreshed.add(event.getSource().getProject());
+      }
+      for(IFile pom : poms) {
+        assertTrue(pom.getFullPath().toString(), refreshed.contains(pom.getProject()));
+      }
+
+      passes += notifications;
+      System.out.println("burst," + MODULES + "," + poms.length + "," + notifications + "," + events.size());
+    }
+
+    commitMeasurements();
+    System.out.println(getName() + " refresh passes per burst: " + (float) passes / EXECUTION_COUNT);
+    assertPerformance();
+    assertMemory(0);
+  }
+
+  private void burst(IFile[] poms) throws Exception {
+    for(IFile pom : poms) {
+      pom.setLocalTimeStamp(pom.getLocalTimeStamp() + 1000L);
+      pom.touch(monitor);
+    }
+  }
+}
@@ -0,0 +1,70 @@
+/*******************************************************************************
+ * Copyright (c) 2008 Sonatype, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+
+package org.maven.ide.eclipse.perftests;
+
+import java.io.File;
+import java.util.Collection;
+
+import org.eclipse.m2e.core.project.LocalProjectScanner;
+import org.eclipse.m2e.core.project.MavenProjectInfo;
+import org.maven.ide.eclipse.perftests.SyntheticWorkspaceGenerator.PluginMix;
+
+
+/**
+ * Scanning a large source tree for Maven projects, the step that runs before import and shows no progress. Only the
+ * scan is measured, nothing is imported. Number of modules is controlled with {@code m2e.perftests.scanModules}, 3000
+ * by default.
+ */
+public class ScanPerformanceTest extends AbstractPerformanceTestCase {
+
+  private static final int MODULES = Integer.getInteger("m2e.perftests.scanModules", 3000);
+
+  public void testScanLargeTree() throws Exception {
+    File basedir = new File("target/synthetic", getName()).getCanonicalFile();
+    SyntheticWorkspaceGenerator generator = generateWorkspace(new SyntheticWorkspaceGenerator(basedir, MODULES, 0, 1,
+        PluginMix.POM));
+    File projects = generator.getProjectsDirectory();
+
+    System.out.println(getName() + "#warmup");
+    assertEquals(generator.getProjectCount(), count(scan(projects).getProjects()));
+
+    for(int i = 0; i < EXECUTION_COUNT; i++ ) {
+      System.out.println(getName() + "#" + i);
+
+      startMeasuring();
+      long start = System.currentTimeMillis();
+      LocalProjectScanner scanner = scan(projects);
+      long elapsed = System.currentTimeMillis() - start;
+      stopMeasuring();
+
+      int count = count(scanner.getProjects());
+      assertEquals(generator.getProjectCount(), count);
+      System.out.println("scan," + count + "," + elapsed);
+    }
+
+    commitMeasurements();
+    assertPerformance();
+    assertMemory(0);
+  }
+
+  private LocalProjectScanner scan(File dir) throws Exception {
+    LocalProjectScanner scanner = new LocalProjectScanner(workspace.getRoot().getLocation().toFile(), dir
+        .getAbsolutePath(), false, modelManager);
+    scanner.run(monitor);
+    return scanner;
+  }
+
+  private static int count(Collection<MavenProjectInfo> projects) {
+    int count = projects.size();
+    for(MavenProjectInfo project : projects) {
+      count += count(project.getProjects());
+    }
+    return count;
+  }
+}
@@ -0,0 +1,452 @@
+/*******************************************************************************
+ * Copyright (c) 2008 Sonatype, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+
+package org.maven.ide.eclipse.perftests;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+
+import org.codehaus.plexus.util.FileUtils;
+
+
+/**
+ * Generates synthetic multi-module workspaces of arbitrary size together with a repository holding all external
+ * artifacts they depend on. Output is deterministic for given parameters, so measurements taken against the same
+ * shape of workspace are comparable across runs.
+ * <p>
+ * Generated layout, relative to {@link #getBasedir()}:
+ *
+ * <pre>
+ *   projects/pom.xml                    aggregator
+ *   projects/parent01..parentNN/        inheritance chain, each parent inherits from the previous one
+ *   projects/module0001..moduleNNNN/    leaf modules, inherit from the last parent
+ *   repository/                         remote repository with external libraries
+ *   localRepo/                          local repository, empty until the first import
+ *   settings.xml                        user settings wiring the two repositories together
+ * </pre>
+ *
+ * Leaf module {@code i} depends on up to {@code fanOut} modules with index lower than {@code i} and on one external
+ * library, so the module graph is always acyclic.
+ */
+public class SyntheticWorkspaceGenerator {
+
+  public static final String GROUP_ID = "synthetic";
+
+  public static final String LIBS_GROUP_ID = "synthetic.libs";
+
+  public static final String VERSION = "0.0.1-SNAPSHOT";
+
+  public static final String LIBS_VERSION = "1.0";
+
+  /**
+   * Name of the alternative POM written next to {@link #getProbeModule()} pom.xml. It adds one extra library
+   * dependency and is meant to be copied over pom.xml to trigger a refresh.
+   */
+  public static final String PROBE_POM = "pom_with_new_dependency.xml";
+
+  /**
+   * Build plugins used by generated modules. All plugins are available from the perftests remote repository.
+   */
+  public static enum PluginMix {
+    /** pom packaging, no build plugins and no Java project configuration */
+    POM,
+
+    /** jar packaging, plugin versions come from pluginManagement of {@code pts:base} */
+    JAR,
+
+    /** jar packaging with explicit compiler, surefire and jar plugin configuration and executions */
+    CONFIGURED,
+
+    /** modules cycle through {@link #POM}, {@link #JAR} and {@link #CONFIGURED} */
+    MIXED
+  }
+
+  private static final long SEED = 0x5eedL;
+
+  private final File basedir;
+
+  private final int moduleCount;
+
+  private final int fanOut;
+
+  private final int inheritanceDepth;
+
+  private final PluginMix pluginMix;
+
+  private int libraryCount = 50;
+
+  private int missingLibraryCount;
+
+  private String repositoryUrl;
+
+  /**
+   * @param basedir directory to generate the workspace into, any previous content is deleted
+   * @param moduleCount number of leaf modules
+   * @param fanOut maximum number of workspace dependencies per leaf module
+   * @param inheritanceDepth number of parent poms between the leaf modules and {@code pts:base}
+   * @param pluginMix build plugins used by leaf modules
+   */
+  public SyntheticWorkspaceGenerator(File basedir, int moduleCount, int fanOut, int inheritanceDepth,
+      PluginMix pluginMix) {
+    if(moduleCount < 1) {
+      throw new IllegalArgumentException("moduleCount must be positive " + moduleCount);
+    }
+    if(fanOut < 0 || inheritanceDepth < 0) {
+      throw new IllegalArgumentException("fanOut and inheritanceDepth must not be negative");
+    }
+    this.basedir = basedir;
+    this.moduleCount = moduleCount;
+    this.fanOut = fanOut;
+    this.inheritanceDepth = inheritanceDepth;
+    this.pluginMix = pluginMix;
+  }
+
+  public void setLibraryCount(int libraryCount) {
+    this.libraryCount = libraryCount;
+  }
+
+  /**
+   * Makes leaf modules depend on one of the given number of libraries that do not exist in any repository, to
+   * simulate imports with unresolvable dependencies. Zero, the default, disables missing dependencies.
+   */
+  public void setMissingLibraryCount(int missingLibraryCount) {
+    this.missingLibraryCount = missingLibraryCount;
+  }
+
+  /**
+   * Makes generated settings reference external libraries through the given url instead of
+   * {@link #getRepositoryDirectory()}, for example a {@link LatencyRepositoryServer} serving that directory.
+   */
+  public void setRepositoryUrl(String repositoryUrl) {
+    this.repositoryUrl = repositoryUrl;
+  }
+
+  public File getBasedir() {
+    return basedir;
+  }
+
+  public File getProjectsDirectory() {
+    return new File(basedir, "projects");
+  }
+
+  public File getRepositoryDirectory() {
+    return new File(basedir, "repository");
+  }
+
+  public File getLocalRepositoryDirectory() {
+    return new File(basedir, "localRepo");
+  }
+
+  public File getSettingsFile() {
+    return new File(basedir, "settings.xml");
+  }
+
+  public int getModuleCount() {
+    return moduleCount;
+  }
+
+  /**
+   * @return number of projects an import of {@link #getProjectsDirectory()} creates, i.e. the aggregator, all parents
+   *         and all leaf modules
+   */
+  public int getProjectCount() {
+    return 1 + inheritanceDepth + moduleCount;
+  }
+
+  /**
+   * @return artifactId of the module roughly in the middle of the dependency graph, used as refresh target
+   */
+  public String getProbeModule() {
+    return moduleId(Math.max(1, moduleCount / 2));
+  }
+
+  /**
+   * Generates the workspace, the repository with external libraries and an empty local repository. Generated
+   * settings.xml references {@code remoteRepo} for {@code pts:base} and build plugins.
+   *
+   * @param remoteRepo perftests remote repository with {@code pts:base} and build plugins
+   */
+  public void generate(File remoteRepo) throws IOException {
+    FileUtils.deleteDirectory(basedir);
+
+    writeSettings(remoteRepo.getCanonicalFile());
+    getLocalRepositoryDirectory().mkdirs();
+
+    for(int i = 1; i <= libraryCount; i++ ) {
+      writeLibrary(libraryId(i));
+    }
+
+    generateProjects();
+  }
+
+  /**
+   * (Re)generates {@link #getProjectsDirectory()} only. Repositories are left untouched, so the local repository
+   * stays populated between iterations that delete imported projects together with their content.
+   */
+  public void generateProjects() throws IOException {
+    Random random = new Random(SEED);
+
+    File projects = getProjectsDirectory();
+    FileUtils.deleteDirectory(projects);
+
+    List<String> children = new ArrayList<String>();
+
+    String parentGroupId = "pts";
+    String parentArtifactId = "base";
+    String parentVersion = "1";
+    String parentPath = null;
+    for(int i = 1; i <= inheritanceDepth; i++ ) {
+      String artifactId = parentId(i);
+      StringBuilder sb = new StringBuilder();
+      startProject(sb, parentGroupId, parentArtifactId, parentVersion, parentPath);
+      sb.append("  <groupId>").append(GROUP_ID).append("</groupId>\n");
+      sb.append("  <artifactId>").append(artifactId).append("</artifactId>\n");
+      sb.append("  <version>").append(VERSION).append("</version>\n");
+      sb.append("  <packaging>pom</packaging>\n");
+      sb.append("  <properties>\n");
+      sb.append("    <").append(artifactId).append(".property>").append(i).append("</").append(artifactId)
+          .append(".property>\n");
+      sb.append("  </properties>\n");
+      sb.append("</project>\n");
+      write(new File(projects, artifactId + "/pom.xml"), sb.toString());
+      children.add(artifactId);
+
+      parentGroupId = GROUP_ID;
+      parentArtifactId = artifactId;
+      parentVersion = VERSION;
+      parentPath = "../" + artifactId;
+    }
+
+    for(int i = 1; i <= moduleCount; i++ ) {
+      String artifactId = moduleId(i);
+      PluginMix mix = getPluginMix(i);
+
+      Set<String> dependencies = new LinkedHashSet<String>();
+      for(int j = 0; j < fanOut && i > 1; j++ ) {
+        dependencies.add(moduleId(1 + random.nextInt(i - 1)));
+      }
+      int library = 1 + random.nextInt(libraryCount);
+      String missingLibrary = missingLibraryCount > 0 ? missingLibraryId(1 + i % missingLibraryCount) : null;
+
+      File dir = new File(projects, artifactId);
+      write(new File(dir, "pom.xml"),
+          modulePom(parentGroupId, parentArtifactId, parentVersion, parentPath, artifactId, mix, dependencies,
+              libraryId(library), missingLibrary, null));
+      if(artifactId.equals(getProbeModule())) {
+        write(new File(dir, PROBE_POM),
+            modulePom(parentGroupId, parentArtifactId, parentVersion, parentPath, artifactId, mix, dependencies,
+                libraryId(library), missingLibrary, libraryId(library % libraryCount + 1)));
+      }
+      if(mix != PluginMix.POM) {
+        write(new File(dir, "src/main/java/" + GROUP_ID + "/" + artifactId + "/Main.java"), //
+            "package " + GROUP_ID + "." + artifactId + ";\n\npublic class Main {\n}\n");
+      }
+      children.add(artifactId);
+    }
+
+    StringBuilder sb = new StringBuilder();
+    startProject(sb, "pts", "base", "1", null);
+    sb.append("  <groupId>").append(GROUP_ID).append("</groupId>\n");
+    sb.append("  <artifactId>aggregator</artifactId>\n");
+    sb.append("  <version>").append(VERSION).append("</version>\n");
+    sb.append("  <packaging>pom</packaging>\n");
+    sb.append("  <modules>\n");
+    for(String child : children) {
+      sb.append("    <module>").append(child).append("</module>\n");
+    }
+    sb.append("  </modules>\n");
+    sb.append("</project>\n");
+    write(new File(projects, "pom.xml"), sb.toString());
+  }
+
+  private PluginMix getPluginMix(int module) {
+    if(pluginMix == PluginMix.MIXED) {
+      return PluginMix.values()[module % 3];
+    }
+    return pluginMix;
+  }
+
+  private String modulePom(String parentGroupId, String parentArtifactId, String parentVersion, String parentPath,
+      String artifactId, PluginMix mix, Set<String> dependencies, String library, String missingLibrary,
+      String extraLibrary) {
+    StringBuilder sb = new StringBuilder();
+    startProject(sb, parentGroupId, parentArtifactId, parentVersion, parentPath);
+    if(inheritanceDepth == 0) {
+      sb.append("  <groupId>").append(GROUP_ID).append("</groupId>\n");
+      sb.append("  <version>").append(VERSION).append("</version>\n");
+    }
+    sb.append("  <artifactId>").append(artifactId).append("</artifactId>\n");
+    sb.append("  <packaging>").append(mix == PluginMix.POM ? "pom" : "jar").append("</packaging>\n");
+    sb.append("  <dependencies>\n");
+    for(String dependency : dependencies) {
+      appendDependency(sb, GROUP_ID, dependency, VERSION);
+    }
+    appendDependency(sb, LIBS_GROUP_ID, library, LIBS_VERSION);
+    if(missingLibrary != null) {
+      appendDependency(sb, LIBS_GROUP_ID, missingLibrary, LIBS_VERSION);
+    }
+    if(extraLibrary != null) {
+      appendDependency(sb, LIBS_GROUP_ID, extraLibrary, LIBS_VERSION);
+    }
+    sb.append("  </dependencies>\n");
+    if(mix == PluginMix.CONFIGURED) {
+      sb.append("  <build>\n");
+      sb.append("    <plugins>\n");
+      sb.append("      <plugin>\n");
+      sb.append("        <artifactId>maven-compiler-plugin</artifactId>\n");
+      sb.append("        <configuration>\n");
+      sb.append("          <source>1.8</source>\n");
+      sb.append("          <target>1.8</target>\n");
+      sb.append("          <encoding>UTF-8</encoding>\n");
+      sb.append("        </configuration>\n");
+      sb.append("      </plugin>\n");
+      sb.append("      <plugin>\n");
+      sb.append("        <artifactId>maven-surefire-plugin</artifactId>\n");
+      sb.append("        <configuration>\n");
+      sb.append("          <skip>true</skip>\n");
+      sb.append("        </configuration>\n");
+      sb.append("      </plugin>\n");
+      sb.append("      <plugin>\n");
+      sb.append("        <artifactId>maven-jar-plugin</artifactId>\n");
+      sb.append("        <executions>\n");
+      sb.append("          <execution>\n");
+      sb.append("            <goals>\n");
+      sb.append("              <goal>test-jar</goal>\n");
+      sb.append("            </goals>\n");
+      sb.append("          </execution>\n");
+      sb.append("        </executions>\n");
+      sb.append("      </plugin>\n");
+      sb.append("    </plugins>\n");
+      sb.append("  </build>\n");
+    }
+    sb.append("</project>\n");
+    return sb.toString();
+  }
+
+  private static void startProject(StringBuilder sb, String groupId, String artifactId, String version,
+      String relativePath) {
+    sb.append("<project>\n");
+    sb.append("  <modelVersion>4.0.0</modelVersion>\n");
+    sb.append("  <parent>\n");
+    sb.append("    <groupId>").append(groupId).append("</groupId>\n");
+    sb.append("    <artifactId>").append(artifactId).append("</artifactId>\n");
+    sb.append("    <version>").append(version).append("</version>\n");
+    if(relativePath != null) {
+      sb.append("    <relativePath>").append(relativePath).append("</relativePath>\n");
+    } else {
+      sb.append("    <relativePath />\n");
+    }
+    sb.append("  </parent>\n");
+  }
+
+  private static void appendDependency(StringBuilder sb, String groupId, String artifactId, String version) {
+    sb.append("    <dependency>\n");
+    sb.append("      <groupId>").append(groupId).append("</groupId>\n");
+    sb.append("      <artifactId>").append(artifactId).append("</artifactId>\n");
+    sb.append("      <version>").append(version).append("</version>\n");
+    sb.append("    </dependency>\n");
+  }
+
+  private void writeLibrary(String artifactId) throws IOException {
+    File dir = new File(getRepositoryDirectory(), LIBS_GROUP_ID.replace('.', '/') + "/" + artifactId + "/"
+        + LIBS_VERSION);
+    String basename = artifactId + "-" + LIBS_VERSION;
+
+    StringBuilder sb = new StringBuilder();
+    sb.append("<project>\n");
+    sb.append("  <modelVersion>4.0.0</modelVersion>\n");
+    sb.append("  <groupId>").append(LIBS_GROUP_ID).append("</groupId>\n");
+    sb.append("  <artifactId>").append(artifactId).append("</artifactId>\n");
+    sb.append("  <version>").append(LIBS_VERSION).append("</version>\n");
+    sb.append("</project>\n");
+    write(new File(dir, basename + ".pom"), sb.toString());
+
+    OutputStream os = new FileOutputStream(new File(dir, basename + ".jar"));
+    try {
+      Manifest manifest = new Manifest();
+      manifest.getMainAttributes().putValue("Manifest-Version", "1.0");
+      new JarOutputStream(os, manifest).close();
+    } finally {
+      os.close();
+    }
+  }
+
+  private void writeSettings(File remoteRepo) throws IOException {
+    String remoteUrl = remoteRepo.toURI().toString();
+    String syntheticUrl = repositoryUrl != null ? repositoryUrl : getRepositoryDirectory().getCanonicalFile().toURI()
+        .toString();
+
+    StringBuilder sb = new StringBuilder();
+    sb.append("<settings>\n");
+    sb.append("  <localRepository>").append(getLocalRepositoryDirectory().getCanonicalPath())
+        .append("</localRepository>\n");
+    sb.append("  <profiles>\n");
+    sb.append("    <profile>\n");
+    sb.append("      <id>perf</id>\n");
+    sb.append("      <repositories>\n");
+    appendRepository(sb, "repository", "central", remoteUrl);
+    appendRepository(sb, "repository", "synthetic", syntheticUrl);
+    sb.append("      </repositories>\n");
+    sb.append("      <pluginRepositories>\n");
+    appendRepository(sb, "pluginRepository", "central", remoteUrl);
+    sb.append("      </pluginRepositories>\n");
+    sb.append("    </profile>\n");
+    sb.append("  </profiles>\n");
+    sb.append("  <activeProfiles>\n");
+    sb.append("    <activeProfile>perf</activeProfile>\n");
+    sb.append("  </activeProfiles>\n");
+    sb.append("</settings>\n");
+    write(getSettingsFile(), sb.toString());
+  }
+
+  private static void appendRepository(StringBuilder sb, String element, String id, String url) {
+    sb.append("        <").append(element).append(">\n");
+    sb.append("          <id>").append(id).append("</id>\n");
+    sb.append("          <url>").append(url).append("</url>\n");
+    sb.append("          <releases><enabled>true</enabled><checksumPolicy>ignore</checksumPolicy></releases>\n");
+    sb.append("          <snapshots><enabled>true</enabled><checksumPolicy>ignore</checksumPolicy></snapshots>\n");
+    sb.append("        </").append(element).append(">\n");
+  }
+
+  private static void write(File file, String content) throws IOException {
+    file.getParentFile().mkdirs();
+    Writer w = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+    try {
+      w.write(content);
+    } finally {
+      w.close();
+    }
+  }
+
+  private static String parentId(int i) {
+    return String.format("parent%02d", i);
+  }
+
+  static String moduleId(int i) {
+    return String.format("module%04d", i);
+  }
+
+  private static String missingLibraryId(int i) {
+    return String.format("missing%03d", i);
+  }
+
+  private static String libraryId(int i) {
+    return String.format("lib%03d", i);
+  }
+}
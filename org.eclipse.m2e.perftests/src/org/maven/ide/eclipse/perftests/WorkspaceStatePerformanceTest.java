@@ -0,0 +1,146 @@
+/*******************************************************************************
+ * Copyright (c) 2008 Sonatype, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+
+package org.maven.ide.eclipse.perftests;
+
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.m2e.core.internal.MavenPluginActivator;
+import org.eclipse.m2e.core.internal.project.registry.MavenProjectFacade;
+import org.eclipse.m2e.core.internal.project.registry.ProjectRegistry;
+import org.eclipse.m2e.core.internal.project.registry.ProjectRegistryReader;
+import org.eclipse.m2e.core.lifecyclemapping.model.IPluginExecutionMetadata;
+import org.eclipse.m2e.core.project.configurator.MojoExecutionKey;
+import org.maven.ide.eclipse.perftests.SyntheticWorkspaceGenerator.PluginMix;
+
+
+/**
+ * Persisting and restoring the project registry of a synthetic workspace, i.e. what happens on workspace save and on
+ * m2e startup. Workspace size is controlled with {@code m2e.perftests.stateModules}, 1000 modules by default.
+ */
+@SuppressWarnings("restriction")
+public class WorkspaceStatePerformanceTest extends AbstractPerformanceTestCase {
+
+  private static final String WORKSPACE_STATE_SER = "workspaceState.ser";
+
+  private static final int MODULES = Integer.getInteger("m2e.perftests.stateModules", 1000);
+
+  private SyntheticWorkspaceGenerator generator;
+
+  private File stateDir;
+
+  protected void setUp() throws Exception {
+    super.setUp();
+
+    File basedir = new File("target/synthetic", getName()).getCanonicalFile();
+    generator = generateWorkspace(new SyntheticWorkspaceGenerator(basedir, MODULES, 5, 2, PluginMix.MIXED));
+
+    System.out.println(getName() + "#setup");
+    importProjects(generator.getProjectsDirectory());
+    waitForJobsToComplete();
+    assertEquals(generator.getProjectCount(), projectManager.getProjects().length);
+
+    stateDir = MavenPluginActivator.getDefault().getStateLocation().toFile();
+  }
+
+  public void testWriteWorkspaceState() throws Exception {
+    System.out.println(getName() + "#warmup");
+    projectManager.writeWorkspaceState();
+
+    for(int i = 0; i < EXECUTION_COUNT; i++ ) {
+      System.out.println(getName() + "#" + i);
+
+      startMeasuring();
+      projectManager.writeWorkspaceState();
+      stopMeasuring();
+    }
+
+    report();
+
+    commitMeasurements();
+    assertPerformance();
+    assertMemory(0);
+  }
+
+  public void testReadWorkspaceState() throws Exception {
+    projectManager.writeWorkspaceState();
+    report();
+
+    ProjectRegistryReader reader = new ProjectRegistryReader(stateDir);
+
+    System.out.println(getName() + "#warmup");
+    assertRestored(reader.readWorkspaceState(projectManager));
+
+    for(int i = 0; i < EXECUTION_COUNT; i++ ) {
+      System.out.println(getName() + "#" + i);
+
+      startMeasuring();
+      ProjectRegistry state = reader.readWorkspaceState(projectManager);
+      stopMeasuring();
+
+      // sanity check
+      assertRestored(state);
+    }
+
+    commitMeasurements();
+    assertPerformance();
+    // retained heap of the restored registry, per project
+    assertMemory(generator.getProjectCount());
+  }
+
+  /**
+   * Startup followed by access to one project only, the common case for large workspaces where most projects are not
+   * touched during a session.
+   */
+  public void testReadWorkspaceStateAndAccessOneProject() throws Exception {
+    projectManager.writeWorkspaceState();
+
+    IFile pom = projectManager.getMavenProject(SyntheticWorkspaceGenerator.GROUP_ID, generator.getProbeModule(),
+        SyntheticWorkspaceGenerator.VERSION).getPom();
+    ProjectRegistryReader reader = new ProjectRegistryReader(stateDir);
+
+    System.out.println(getName() + "#warmup");
+    assertRestored(reader.readWorkspaceState(projectManager));
+
+    for(int i = 0; i < EXECUTION_COUNT; i++ ) {
+      System.out.println(getName() + "#" + i);
+
+      startMeasuring();
+      ProjectRegistry state = reader.readWorkspaceState(projectManager);
+      MavenProjectFacade facade = state.getProjectFacade(pom);
+      Map<MojoExecutionKey, List<IPluginExecutionMetadata>> mapping = facade.getMojoExecutionMapping();
+      stopMeasuring();
+
+      // sanity check
+      assertRestored(state);
+      assertFalse(mapping.isEmpty());
+    }
+
+    commitMeasurements();
+    assertPerformance();
+    assertMemory(0);
+  }
+
+  private void assertRestored(ProjectRegistry state) {
+    assertNotNull(state);
+    assertTrue(state.isValid());
+    assertEquals(generator.getProjectCount(), state.getProjects().length);
+  }
+
+  /**
+   * Prints size of the persisted registry, which is not something the performance database can track.
+   */
+  private void report() {
+    File stateFile = new File(stateDir, WORKSPACE_STATE_SER);
+    assertTrue(stateFile.exists());
+    System.out.println("workspaceState," + generator.getProjectCount() + "," + stateFile.length());
+  }
+}
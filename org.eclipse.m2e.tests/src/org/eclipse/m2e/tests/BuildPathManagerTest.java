@@ -15,7 +15,9 @@ import static org.eclipse.m2e.tests.common.ClasspathHelpers.assertClasspath;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Properties;
@@ -54,8 +56,11 @@ import org.apache.maven.model.Plugin;
 import org.apache.maven.project.MavenProject;
 
 import org.eclipse.m2e.core.MavenPlugin;
+import org.eclipse.m2e.core.embedder.ArtifactKey;
+import org.eclipse.m2e.core.embedder.ILocalRepositoryListener;
 import org.eclipse.m2e.core.internal.IMavenConstants;
 import org.eclipse.m2e.core.internal.MavenPluginActivator;
+import org.eclipse.m2e.core.internal.embedder.MavenImpl;
 import org.eclipse.m2e.core.internal.index.IMutableIndex;
 import org.eclipse.m2e.core.internal.index.nexus.NexusIndex;
 import org.eclipse.m2e.core.internal.index.nexus.NexusIndexManager;
@@ -395,6 +400,48 @@ public class BuildPathManagerTest extends AbstractMavenProjectTestCase {
     assertEquals("downloadsources-t002-0.0.1-sources.jar", cp[1].getSourceAttachmentPath().lastSegment());
   }
 
+  public void testDownloadSources_009_sharedDependencies() throws Exception {
+    deleteSourcesAndJavadoc(new File(repo, "downloadsources/downloadsources-t001/0.0.1/"));
+    deleteSourcesAndJavadoc(new File(repo, "downloadsources/downloadsources-t002/0.0.1/"));
+
+    IProject p001 = createExisting("downloadsources-p001", "projects/downloadsources/p001");
+    IProject p009 = createExisting("downloadsources-p009", "projects/downloadsources/p009");
+    waitForJobsToComplete();
+
+    final List<ArtifactKey> downloaded = Collections.synchronizedList(new ArrayList<ArtifactKey>());
+    ILocalRepositoryListener listener = new ILocalRepositoryListener() {
+      public void artifactInstalled(File repositoryBasedir, ArtifactKey baseArtifact, ArtifactKey artifact,
+          File artifactFile) {
+        if("sources".equals(artifact.getClassifier())) {
+          downloaded.add(artifact);
+        }
+      }
+    };
+
+    MavenImpl maven = (MavenImpl) MavenPlugin.getMaven();
+    maven.addLocalRepositoryListener(listener);
+    try {
+      // overlapping requests for the same attachments
+      getBuildPathManager().scheduleDownload(p001, true, false);
+      getBuildPathManager().scheduleDownload(p009, true, false);
+      getBuildPathManager().scheduleDownload(p001, true, false);
+      waitForJobsToComplete();
+    } finally {
+      maven.removeLocalRepositoryListener(listener);
+    }
+
+    for(IProject project : new IProject[] {p001, p009}) {
+      IClasspathEntry[] cp = BuildPathManager.getMaven2ClasspathContainer(JavaCore.create(project))
+          .getClasspathEntries();
+      assertEquals(2, cp.length);
+      assertEquals("downloadsources-t001-0.0.1-sources.jar", cp[0].getSourceAttachmentPath().lastSegment());
+      assertEquals("downloadsources-t002-0.0.1-sources.jar", cp[1].getSourceAttachmentPath().lastSegment());
+    }
+
+    // each sources jar is downloaded once for all projects and requests
+    assertEquals(downloaded.toString(), 2, downloaded.size());
+  }
+
   public void testDownloadSources_001_workspaceRestart() throws Exception {
     deleteSourcesAndJavadoc(new File(repo, "downloadsources/downloadsources-t001/0.0.1/"));
     deleteSourcesAndJavadoc(new File(repo, "downloadsources/downloadsources-t002/0.0.1/"));
@@ -73,6 +73,52 @@ public class ClasspathProviderTest extends AbstractMavenProjectTestCase {
     assertEquals(new Path("/cptest2/target/classes"), userClasspath[3].getPath());
   }
 
+  public void testClasspathAfterDependencyChange() throws Exception {
+    IProject cptest = createExisting("cptest", "projects/MNGECLIPSE-369/cptest");
+    createExisting("cptest2", "projects/MNGECLIPSE-369/cptest2");
+    createExisting("testlib", "projects/MNGECLIPSE-369/testlib");
+    waitForJobsToComplete();
+
+    workspace.build(IncrementalProjectBuilder.FULL_BUILD, monitor);
+
+    ILaunchConfiguration configuration = DebugPlugin.getDefault().getLaunchManager()
+        .getLaunchConfiguration(cptest.getFile("TestApp.launch"));
+
+    MavenRuntimeClasspathProvider classpathProvider = new MavenRuntimeClasspathProvider();
+    IRuntimeClasspathEntry[] userClasspath = getUserClasspathEntries(classpathProvider.resolveClasspath(
+        classpathProvider.computeUnresolvedClasspath(configuration), configuration));
+    assertEquals(Arrays.asList(userClasspath).toString(), 4, userClasspath.length);
+    assertEquals(new Path("/cptest2/target/classes"), userClasspath[3].getPath());
+
+    // drop the workspace dependency, previously computed runtime classpath must not be used anymore
+    MavenXpp3Reader reader = new MavenXpp3Reader();
+    InputStream is = cptest.getFile("pom.xml").getContents();
+    Model model;
+    try {
+      model = reader.read(is);
+    } finally {
+      is.close();
+    }
+    for(Dependency d : new ArrayList<Dependency>(model.getDependencies())) {
+      if("cptest2".equals(d.getArtifactId())) {
+        model.removeDependency(d);
+      }
+    }
+
+    ByteArrayOutputStream buf = new ByteArrayOutputStream();
+    OutputStreamWriter out = new OutputStreamWriter(buf);
+    new MavenXpp3Writer().write(out, model);
+    cptest.getFile("pom.xml").setContents(new ByteArrayInputStream(buf.toByteArray()), true, false, null);
+    waitForJobsToComplete();
+
+    userClasspath = getUserClasspathEntries(classpathProvider.resolveClasspath(
+        classpathProvider.computeUnresolvedClasspath(configuration), configuration));
+    assertEquals(new Path("/cptest/target/classes"), userClasspath[0].getPath());
+    for(IRuntimeClasspathEntry entry : userClasspath) {
+      assertFalse(Arrays.asList(userClasspath).toString(), new Path("/cptest2/target/classes").equals(entry.getPath()));
+    }
+  }
+
   public void testNonDefaultTestSource() throws Exception {
     deleteProject("515398");
     IProject project = createExisting("515398", "projects/515398");
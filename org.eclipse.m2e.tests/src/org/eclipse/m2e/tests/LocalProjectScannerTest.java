@@ -282,6 +282,37 @@ public class LocalProjectScannerTest extends TestCase {
     assertFalse(tempDirectory.exists());
   }
 
+  public void testStableOrder() throws Exception {
+    File tempDirectory = new File(System.getProperty("java.io.tmpdir"), "/testorder-" + new Random().nextInt(10000));
+    File pom = new File("projects/localprojectscanner/nometadata/accessible/pom.xml");
+    try {
+      for(int i = 0; i < 50; i++ ) {
+        FileUtils.copyFile(pom, new File(tempDirectory, "module" + i + "/pom.xml"));
+      }
+
+      List<File> first = scan(tempDirectory);
+      assertEquals(50, first.size());
+
+      // scanning concurrently must not change the order projects are reported in
+      for(int i = 0; i < 5; i++ ) {
+        assertEquals(first, scan(tempDirectory));
+      }
+    } finally {
+      FileUtils.deleteDirectory(tempDirectory);
+    }
+  }
+
+  private List<File> scan(File directory) throws Exception {
+    LocalProjectScanner scanner = new LocalProjectScanner(directory.getParentFile(), directory.toString(), false,
+        modelManager);
+    scanner.run(new NullProgressMonitor());
+    List<File> poms = new ArrayList<File>();
+    for(MavenProjectInfo project : scanner.getProjects()) {
+      poms.add(project.getPomFile());
+    }
+    return poms;
+  }
+
   public void testNoMetadata() throws Exception {
     File baseDir = new File("projects/localprojectscanner/nometadata").getCanonicalFile();
 
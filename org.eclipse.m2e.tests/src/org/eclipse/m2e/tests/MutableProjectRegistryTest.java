@@ -233,6 +233,37 @@ public class MutableProjectRegistryTest extends AbstractMavenProjectTestCase {
     tmpDir.delete();
   }
 
+  public void testWorkspaceStateRoundTrip() throws Exception {
+    ProjectRegistry state = new ProjectRegistry();
+    MutableProjectRegistry delta = new MutableProjectRegistry(state);
+
+    IProject project = createExisting("dummy", "resources/dummy");
+    IFile pom1 = project.getFile("p1.xml");
+    IFile pom2 = project.getFile("p2.xml");
+    MavenProjectFacade f1 = newProjectFacade(pom1);
+    MavenProjectFacade f2 = newProjectFacade(pom2);
+    delta.setProject(pom1, f1);
+    delta.setProject(pom2, f2);
+    state.apply(delta);
+
+    File tmpDir = File.createTempFile("m2e-" + getName(), "dir");
+    tmpDir.delete();
+    tmpDir.mkdir();
+    ProjectRegistryReader reader = new ProjectRegistryReader(tmpDir);
+    reader.writeWorkspaceState(state);
+
+    state = reader.readWorkspaceState(null);
+    assertTrue(state.isValid());
+    assertEquals(2, state.getProjects().length);
+    assertEquals(f1.getArtifactKey(), state.getProjectFacade(pom1).getArtifactKey());
+    assertEquals(f2.getArtifactKey(), state.getProjectFacade(pom2).getArtifactKey());
+    assertEquals(pom1, state.getProjectFacade(pom1).getPom());
+    assertEquals(1, getWorkspaceArtifacts(state, f1.getArtifactKey()).size());
+
+    new File(tmpDir, WORKSPACE_STATE_SER).delete();
+    tmpDir.delete();
+  }
+
   private MavenProjectFacade newProjectFacade(IFile pom) throws Exception {
     MavenProject mavenProject = maven.readProject(pom.getLocation().toFile(), monitor);
     return new MavenProjectFacade(null, pom, mavenProject, null);
@@ -296,6 +296,45 @@ public class ProjectRegistryManagerTest extends AbstractMavenProjectTestCase {
     fail("Implement me");
   }
 
+  public void test004_refreshParentChain() throws Exception {
+    // t004-pNN has t004-p(NN+1) as parent, projects are created children first
+    IProject[] projects = new IProject[10];
+    for(int i = 0; i < projects.length; i++ ) {
+      projects[i] = createExisting(String.format("t004-p%02d", i + 1));
+    }
+    waitForJobsToComplete();
+
+    boolean origSuspended = Job.getJobManager().isSuspended();
+
+    Job.getJobManager().suspend();
+    try {
+      events.clear();
+
+      manager.refresh(new MavenUpdateRequest(projects, false, true), monitor);
+
+      // exactly one change event per project, regardless of the order projects are resolved in
+      assertEquals(projects.length, events.size());
+      assertContainsOnly(getProjectsFromEvents(events), projects);
+      for(MavenProjectChangedEvent event : events) {
+        assertEquals(MavenProjectChangedEvent.KIND_CHANGED, event.getKind());
+        assertNotNull(event.getOldMavenProject());
+        assertNotNull(event.getMavenProject());
+      }
+
+      // every child is resolved against the refreshed parent facade
+      for(int i = 0; i < projects.length - 1; i++ ) {
+        MavenProject mavenProject = manager.create(projects[i], monitor).getMavenProject(monitor);
+        assertEquals(projects[i + 1].getName(), mavenProject.getParent().getArtifactId());
+        assertEquals(projects[i + 1].getFile(IMavenConstants.POM_FILE_NAME).getLocation().toFile(), mavenProject
+            .getParent().getFile());
+      }
+    } finally {
+      if(!origSuspended) {
+        Job.getJobManager().resume();
+      }
+    }
+  }
+
   public void test005_dependencyAvailableFromLocalRepoAndWorkspace() throws Exception {
     IProject p1 = createExisting("t005-p1");
     IProject p2 = createExisting("t005-p2");
@@ -923,6 +962,34 @@ public class ProjectRegistryManagerTest extends AbstractMavenProjectTestCase {
     }
   }
 
+  public void testRepositoryMetadataCacheUsedAcrossRefreshes() throws Exception {
+    FileUtils.deleteDirectory(new File(repo, "mngeclipse1996"));
+    String oldSettings = mavenConfiguration.getUserSettingsFile();
+    try {
+      injectFilexWagon();
+      mavenConfiguration.setUserSettingsFile(new File("projects/MNGECLIPSE-1996/settings-daily.xml")
+          .getAbsolutePath());
+      waitForJobsToComplete();
+
+      IProject[] projects = importProjects("projects/MNGECLIPSE-1996", new String[] {"pom.xml", "mod-a/pom.xml",
+          "mod-b/pom.xml", "mod-c/pom.xml", "mod-d/pom.xml", "mod-e/pom.xml"}, new ResolverConfiguration());
+      waitForJobsToComplete();
+
+      // metadata fetched during import is still fresh according to daily repository update policy
+      FilexWagon.setRequestFilterPattern("mngeclipse1996/.*xml", true);
+      manager.refresh(new MavenUpdateRequest(projects, false, false), monitor);
+      List<String> requests = FilexWagon.getRequests();
+      assertTrue("Accessed metadata " + requests.size() + " times: " + requests, requests.isEmpty());
+
+      // forced update ignores the update policy
+      FilexWagon.setRequestFilterPattern("mngeclipse1996/.*xml", true);
+      manager.refresh(new MavenUpdateRequest(projects, false, true), monitor);
+      assertFalse(FilexWagon.getRequests().isEmpty());
+    } finally {
+      mavenConfiguration.setUserSettingsFile(oldSettings);
+    }
+  }
+
   public void testEnvironmentVariablesConsidered() throws Exception {
     String tmpDir = System.getenv("TEMP");
     assertTrue("This test requires the environment variable TEMP to be set", tmpDir != null);
@@ -1136,6 +1203,28 @@ public class ProjectRegistryManagerTest extends AbstractMavenProjectTestCase {
     assertEquals(3, FilexWagon.getRequests().size());
   }
 
+  public void test356645_missingSnapshotNotRequestedAgain() throws Exception {
+    FileUtils.deleteDirectory(new File("target/356645localrepo"));
+
+    mavenConfiguration.setUserSettingsFile("projects/356645_redundantSnapshotResolution/settings.xml");
+    waitForJobsToComplete();
+    injectFilexWagon();
+
+    IProject[] projects = importProjects("projects/356645_redundantSnapshotResolution", new String[] {
+        "projectA/pom.xml", "projectB/pom.xml"}, new ResolverConfiguration());
+    waitForJobsToComplete();
+
+    // missing snapshot was looked up during import, regular refresh must not ask again
+    FilexWagon.setRequestFilterPattern("missing/missing/.*", true);
+    manager.refresh(new MavenUpdateRequest(projects, false, false), monitor);
+    assertEquals(FilexWagon.getRequests().toString(), 0, FilexWagon.getRequests().size());
+
+    // forced update bypasses whatever is known about missing artifacts
+    FilexWagon.setRequestFilterPattern("missing/missing/.*", true);
+    manager.refresh(new MavenUpdateRequest(projects, false, true), monitor);
+    assertFalse(FilexWagon.getRequests().isEmpty());
+  }
+
   public void test405090_staleBuildExtensionsResolutionError() throws Exception {
     FileUtils.deleteDirectory(new File("target/405090localrepo"));
 
@@ -1288,6 +1377,33 @@ public class ProjectRegistryManagerTest extends AbstractMavenProjectTestCase {
 
   }
 
+  public void test435692_unaffected_changes() throws Exception {
+
+    // parent 1.0
+    importProject("projects/435692_affected_changes/parent/pom.xml");
+
+    // p1:1.0
+    IProject p1 = importProject("projects/435692_affected_changes/p1/pom.xml");
+
+    // depends on p1:1.0 (from workspace), parent 1.0 (workspace)
+    importProject("projects/435692_affected_changes/p2/pom.xml");
+
+    waitForJobsToComplete();
+
+    // change of p1 that changes neither its capabilities nor its requirements must not refresh dependents
+    events.clear();
+    copyContent(p1, "pom_newProperty.xml", "pom.xml");
+    assertContainsOnly(getProjectsFromEvents(events), p1 /* self */);
+
+    // no change at all, like test000_noChangeReload only the touched project is reported and without flags
+    events.clear();
+    copyContent(p1, "pom_newProperty.xml", "pom.xml");
+    assertContainsOnly(getProjectsFromEvents(events), p1 /* self */);
+    for(MavenProjectChangedEvent event : events) {
+      assertEquals(MavenProjectChangedEvent.FLAG_NONE, event.getFlags());
+    }
+  }
+
   public void test436929_import_refresh() throws Exception {
 
     IProject[] projects = importProjects("projects/436929_import_refresh", new String[] {"p1/pom.xml", "deps/pom.xml",
@@ -1406,6 +1522,35 @@ public class ProjectRegistryManagerTest extends AbstractMavenProjectTestCase {
         world.getRealm("extension>org.eclipse.m2e.test.lifecyclemapping:test-lifecyclemapping-plugin:1.0.0"));
   }
 
+  public void testSharedExtensionRealm() throws Exception {
+    IProject[] projects = importProjects("projects/sharedExtensionRealm", new String[] {"p1/pom.xml", "p2/pom.xml"},
+        new ResolverConfiguration());
+    waitForJobsToComplete();
+    assertNoErrors(projects[0]);
+    assertNoErrors(projects[1]);
+
+    ClassRealm realm1 = manager.create(projects[0], monitor).getMavenProject(monitor).getClassRealm();
+    ClassRealm realm2 = manager.create(projects[1], monitor).getMavenProject(monitor).getClassRealm();
+    assertNotNull(realm1);
+    assertNotNull(realm2);
+    ClassWorld world = realm1.getWorld();
+    assertSame(world, realm2.getWorld());
+
+    // projects with identical build extensions share one extension realm
+    ClassRealm extensionRealm = world
+        .getRealm("extension>org.eclipse.m2e.test.lifecyclemapping:test-lifecyclemapping-plugin:1.0.0");
+    assertNotNull(extensionRealm);
+    int realmCount = world.getRealms().size();
+
+    // regular refreshes reuse realms and do not leak new ones
+    for(int i = 0; i < 3; i++ ) {
+      manager.refresh(new MavenUpdateRequest(projects, false, false), monitor);
+    }
+    assertSame(extensionRealm,
+        world.getRealm("extension>org.eclipse.m2e.test.lifecyclemapping:test-lifecyclemapping-plugin:1.0.0"));
+    assertTrue(world.getRealms().size() + " > " + realmCount, world.getRealms().size() <= realmCount);
+  }
+
   public void test453995_dependencyManagementVersionless() throws Exception {
     IProject project = importProject("projects/453995_dependencyManagementVersionless/pom.xml");
     waitForJobsToComplete();
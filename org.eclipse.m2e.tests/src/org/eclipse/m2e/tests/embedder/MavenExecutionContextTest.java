@@ -11,6 +11,7 @@
 
 package org.eclipse.m2e.tests.embedder;
 
+import java.io.File;
 import java.net.URL;
 import java.net.URLClassLoader;
 
@@ -24,6 +25,7 @@ import org.apache.maven.execution.MavenSession;
 
 import org.eclipse.m2e.core.MavenPlugin;
 import org.eclipse.m2e.core.embedder.ICallable;
+import org.eclipse.m2e.core.embedder.IMavenConfiguration;
 import org.eclipse.m2e.core.embedder.IMavenExecutionContext;
 import org.eclipse.m2e.core.internal.embedder.MavenExecutionContext;
 import org.eclipse.m2e.core.internal.embedder.MavenImpl;
@@ -34,6 +36,8 @@ public class MavenExecutionContextTest extends AbstractMavenProjectTestCase {
 
   MavenImpl maven;
 
+  IMavenConfiguration configuration = MavenPlugin.getMavenConfiguration();
+
   protected void setUp() throws Exception {
     super.setUp();
     maven = (MavenImpl) MavenPlugin.getMaven();
@@ -104,6 +108,34 @@ public class MavenExecutionContextTest extends AbstractMavenProjectTestCase {
     }, monitor);
   }
 
+  public void testSettingsChangeBetweenContexts() throws Exception {
+    final String[] basedir = new String[1];
+    ICallable<Void> callable = new ICallable<Void>() {
+      public Void call(IMavenExecutionContext context, IProgressMonitor monitor) throws CoreException {
+        basedir[0] = context.getLocalRepository().getBasedir();
+        return null;
+      }
+    };
+
+    maven.execute(callable, monitor);
+    String origBasedir = basedir[0];
+
+    String origSettings = configuration.getUserSettingsFile();
+    try {
+      // top-level contexts must not reuse repository setup that predates a settings change
+      configuration.setUserSettingsFile(new File("resources/settings/settingsWithSystemPropertySubstitution.xml")
+          .getCanonicalPath());
+      maven.execute(callable, monitor);
+      File location = new File(System.getProperty("user.home"), ".m2/repository-my-project").getCanonicalFile();
+      assertEquals(location, new File(basedir[0]).getCanonicalFile());
+    } finally {
+      configuration.setUserSettingsFile(origSettings);
+    }
+
+    maven.execute(callable, monitor);
+    assertEquals(origBasedir, basedir[0]);
+  }
+
   public void testIllegalState() throws Exception {
     final MavenExecutionContext context = maven.createExecutionContext();
 
@@ -35,6 +35,7 @@ import org.apache.maven.plugin.MojoExecution;
 import org.apache.maven.project.MavenProject;
 import org.apache.maven.project.ProjectBuildingRequest;
 import org.apache.maven.repository.RepositorySystem;
+import org.apache.maven.settings.Settings;
 import org.apache.maven.wagon.proxy.ProxyInfo;
 
 import org.eclipse.m2e.core.MavenPlugin;
@@ -418,6 +419,32 @@ public class MavenImplTest extends AbstractMavenProjectTestCase {
     assertNull(parent);
   }
 
+  public void testReadChangedLocalParent() throws Exception {
+    File basedir = new File("target/readparent-changed").getCanonicalFile();
+    FileUtils.deleteDirectory(basedir);
+    FileUtils.copyDirectoryStructure(new File("projects/readparent/local"), basedir);
+    File parentPom = new File(basedir, "pom.xml");
+    File modulePom = new File(basedir, "module01/pom.xml");
+
+    MavenExecutionResult result = readMavenProject(modulePom, false);
+    assertFalse(result.hasExceptions());
+    assertEquals("2.0.2", getManagedPluginVersion(result.getProject(), "maven-compiler-plugin"));
+
+    // parent models must not be reused once the parent pom changed on disk
+    String content = FileUtils.fileRead(parentPom).replace("<version>2.0.2</version>", "<version>2.3.2</version>");
+    FileUtils.fileWrite(parentPom.getAbsolutePath(), content);
+    parentPom.setLastModified(parentPom.lastModified() + 1000L);
+
+    result = readMavenProject(modulePom, false);
+    assertFalse(result.hasExceptions());
+    assertEquals("2.3.2", getManagedPluginVersion(result.getProject(), "maven-compiler-plugin"));
+  }
+
+  private static String getManagedPluginVersion(MavenProject project, String artifactId) {
+    return project.getBuild().getPluginManagement().getPluginsAsMap()
+        .get("org.apache.maven.plugins:" + artifactId).getVersion();
+  }
+
   public void testMNGECLIPSE2556_settingsSystemPropertiesSubstiution() throws Exception {
     String origSettings = configuration.getUserSettingsFile();
     try {
@@ -452,6 +479,50 @@ public class MavenImplTest extends AbstractMavenProjectTestCase {
     }
   }
 
+  // disabled until MavenImpl caches settings by content, it currently rereads them only when the timestamp changes
+  public void _testChangedUserSettingsSameTimestampReparsed() throws Exception {
+    String origSettings = configuration.getUserSettingsFile();
+    try {
+      File settings = new File("target/358620_settings.xml").getCanonicalFile();
+
+      FileUtils.copyFile(new File("resources/358620_reparse_changed_user_settings/settings.xml"), settings);
+      long lastModified = settings.lastModified();
+      configuration.setUserSettingsFile(settings.getCanonicalPath());
+
+      assertEquals(0, maven.getSettings().getActiveProfiles().size());
+
+      // file timestamps have coarse resolution on some filesystems, so a change can keep the timestamp
+      FileUtils.copyFile(new File("resources/358620_reparse_changed_user_settings/settings.xml-changed"), settings);
+      settings.setLastModified(lastModified);
+
+      assertEquals(1, maven.getSettings().getActiveProfiles().size());
+    } finally {
+      configuration.setUserSettingsFile(origSettings);
+    }
+  }
+
+  // disabled until MavenImpl caches settings by content, it currently rereads them whenever the timestamp changes
+  public void _testUnchangedUserSettingsNewTimestampNotReparsed() throws Exception {
+    String origSettings = configuration.getUserSettingsFile();
+    try {
+      File settings = new File("target/358620_settings.xml").getCanonicalFile();
+
+      FileUtils.copyFile(new File("resources/358620_reparse_changed_user_settings/settings.xml-changed"), settings);
+      configuration.setUserSettingsFile(settings.getCanonicalPath());
+
+      Settings before = maven.getSettings();
+
+      // rewriting the same content is not a change
+      FileUtils.copyFile(new File("resources/358620_reparse_changed_user_settings/settings.xml-changed"), settings);
+      settings.setLastModified(settings.lastModified() + 2000);
+
+      assertSame(before, maven.getSettings());
+      assertEquals(1, before.getActiveProfiles().size());
+    } finally {
+      configuration.setUserSettingsFile(origSettings);
+    }
+  }
+
   public void test366839_userAgent() throws Exception {
     HttpServer httpServer = new HttpServer();
     httpServer.addResources("/", "");
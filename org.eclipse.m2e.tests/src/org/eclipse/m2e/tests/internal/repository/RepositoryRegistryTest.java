@@ -65,4 +65,22 @@ public class RepositoryRegistryTest extends AbstractMavenProjectTestCase {
     assertEquals("pass", auth.getPassword());
   }
 
+  public void testSettingsDecryptionChangedServer() throws CoreException {
+    Settings settings = new Settings();
+    settings.addServer(newServer("test", "user", "{9k2z8UPSVlYHp1+h2s05Qe4Zzpx46wGmzlGqJPgL3lQ=}"));
+
+    assertEquals("pass", repositoryRegistry.getAuthenticationInfo(settings, "test").getPassword());
+
+    // decrypted credentials must not outlive the server definition they came from
+    Settings changed = new Settings();
+    changed.addServer(newServer("test", "user2", "plain"));
+
+    AuthenticationInfo auth = repositoryRegistry.getAuthenticationInfo(changed, "test");
+
+    assertEquals("user2", auth.getUserName());
+    assertEquals("plain", auth.getPassword());
+
+    assertEquals("pass", repositoryRegistry.getAuthenticationInfo(settings, "test").getPassword());
+  }
+
 }
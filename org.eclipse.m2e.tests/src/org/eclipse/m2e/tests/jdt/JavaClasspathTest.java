@@ -15,6 +15,7 @@ import static org.eclipse.m2e.tests.common.ClasspathHelpers.assertClasspath;
 import static org.eclipse.m2e.tests.common.ClasspathHelpers.getClasspathAttribute;
 import static org.eclipse.m2e.tests.common.ClasspathHelpers.getClasspathEntry;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.function.Predicate;
@@ -27,14 +28,18 @@ import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IncrementalProjectBuilder;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.Path;
+import org.eclipse.jdt.core.ElementChangedEvent;
 import org.eclipse.jdt.core.IAccessRule;
 import org.eclipse.jdt.core.IClasspathAttribute;
 import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElementDelta;
 import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.JavaModelException;
 
 import org.eclipse.m2e.core.MavenPlugin;
+import org.eclipse.m2e.core.project.MavenUpdateRequest;
 import org.eclipse.m2e.core.project.ResolverConfiguration;
 import org.eclipse.m2e.jdt.IClasspathDescriptor;
 import org.eclipse.m2e.jdt.IClasspathEntryDescriptor;
@@ -525,6 +530,48 @@ public class JavaClasspathTest extends AbstractMavenProjectTestCase {
     assertNotTest(classpathEntries[0]);
   }
 
+  public void testUnchangedClasspathNotReplaced() throws Exception {
+    IProject[] projects = importProjects("projects/537851-test-jar-in-compile-scope/",
+        new String[] {"test-jar/pom.xml", "project-consuming-test-jar/pom.xml"}, new ResolverConfiguration());
+    waitForJobsToComplete();
+
+    IProject testJar = projects[0];
+    IJavaProject javaTestJar = JavaCore.create(testJar);
+    IJavaProject javaProject = JavaCore.create(projects[1]);
+    IClasspathEntry[] rawClasspath = javaTestJar.getRawClasspath();
+    IClasspathEntry[] containerEntries = BuildPathManager.getMaven2ClasspathContainer(javaProject)
+        .getClasspathEntries();
+
+    List<IJavaElementDelta> classpathDeltas = new ArrayList<>();
+    IElementChangedListener listener = event -> collectClasspathDeltas(event.getDelta(), classpathDeltas);
+    JavaCore.addElementChangedListener(listener, ElementChangedEvent.POST_CHANGE);
+    try {
+      updateProjectConfiguration(testJar);
+
+      testJar.getFile("pom.xml").touch(monitor);
+      MavenPlugin.getMavenProjectRegistry().refresh(new MavenUpdateRequest(testJar, false, false));
+      waitForJobsToComplete();
+    } finally {
+      JavaCore.removeElementChangedListener(listener);
+    }
+
+    // nothing changed, so neither the project nor its dependent get classpath deltas
+    assertEquals(classpathDeltas.toString(), 0, classpathDeltas.size());
+    assertTrue(Arrays.equals(rawClasspath, javaTestJar.getRawClasspath()));
+    assertTrue(Arrays.equals(containerEntries,
+        BuildPathManager.getMaven2ClasspathContainer(javaProject).getClasspathEntries()));
+  }
+
+  private static void collectClasspathDeltas(IJavaElementDelta delta, List<IJavaElementDelta> result) {
+    int flags = IJavaElementDelta.F_CLASSPATH_CHANGED | IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED;
+    if(delta.getElement() instanceof IJavaProject && (delta.getFlags() & flags) != 0) {
+      result.add(delta);
+    }
+    for(IJavaElementDelta child : delta.getAffectedChildren()) {
+      collectClasspathDeltas(child, result);
+    }
+  }
+
   private void assertTest(IClasspathEntry entry) {
     IClasspathAttribute cpAttr = getClasspathAttribute(entry, IClasspathManager.TEST_ATTRIBUTE);
     assertNotNull(entry.getPath().lastSegment() + " is missing the test attribute", cpAttr);
@@ -13,6 +13,7 @@ package org.eclipse.m2e.tests.jdt.internal;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 
 import junit.framework.TestCase;
 
@@ -109,4 +110,70 @@ public class MavenClasspathContainerSaveHelperTest extends TestCase {
     }
   }
 
+  public void testClasspathContainerSaveRepeatedValues() throws Exception {
+    // large containers repeat attribute names, values and path segments in every entry
+    IClasspathEntry[] entries = new IClasspathEntry[300];
+    for(int i = 0; i < entries.length; i++ ) {
+      String base = "/repository/org/example/artifact" + i + "/1.0/artifact" + i + "-1.0";
+
+      IAccessRule[] accessRules = new IAccessRule[1];
+      accessRules[0] = JavaCore.newAccessRule(new Path("org/example/internal/**"), IAccessRule.K_DISCOURAGED);
+
+      IClasspathAttribute[] attributes = new IClasspathAttribute[3];
+      attributes[0] = JavaCore.newClasspathAttribute("maven.groupId", "org.example");
+      attributes[1] = JavaCore.newClasspathAttribute("maven.artifactId", "artifact" + i);
+      attributes[2] = JavaCore.newClasspathAttribute("maven.scope", i % 2 == 0 ? "compile" : "test");
+
+      entries[i] = JavaCore.newLibraryEntry(new Path(base + ".jar"), i % 3 == 0 ? null : new Path(base
+          + "-sources.jar"), null, accessRules, attributes, i % 5 == 0);
+    }
+
+    ByteArrayOutputStream os = new ByteArrayOutputStream();
+    helper.writeContainer(new MavenClasspathContainer(new Path(IClasspathManager.CONTAINER_ID), entries), os);
+    os.close();
+
+    IClasspathContainer container = helper.readContainer(new ByteArrayInputStream(os.toByteArray()));
+
+    IClasspathEntry[] classpathEntries = container.getClasspathEntries();
+    assertEquals(entries.length, classpathEntries.length);
+    for(int i = 0; i < entries.length; i++ ) {
+      IClasspathEntry entry = classpathEntries[i];
+      assertEquals(IClasspathEntry.CPE_LIBRARY, entry.getEntryKind());
+      assertEquals(entries[i].getPath(), entry.getPath());
+      assertEquals(entries[i].getSourceAttachmentPath(), entry.getSourceAttachmentPath());
+      assertEquals(entries[i].isExported(), entry.isExported());
+
+      IAccessRule[] accessRules = entry.getAccessRules();
+      assertEquals(1, accessRules.length);
+      assertEquals(IAccessRule.K_DISCOURAGED, accessRules[0].getKind());
+      assertEquals("org/example/internal/**", accessRules[0].getPattern().toString());
+
+      IClasspathAttribute[] attributes = entry.getExtraAttributes();
+      assertEquals(3, attributes.length);
+      for(int j = 0; j < attributes.length; j++ ) {
+        assertEquals(entries[i].getExtraAttributes()[j].getName(), attributes[j].getName());
+        assertEquals(entries[i].getExtraAttributes()[j].getValue(), attributes[j].getValue());
+      }
+    }
+  }
+
+  public void testReadTruncatedContainer() throws Exception {
+    IClasspathEntry[] entries = new IClasspathEntry[] {JavaCore.newLibraryEntry(new Path("/foo/moo.jar"), null, null)};
+
+    ByteArrayOutputStream os = new ByteArrayOutputStream();
+    helper.writeContainer(new MavenClasspathContainer(new Path(IClasspathManager.CONTAINER_ID), entries), os);
+    os.close();
+
+    byte[] bytes = os.toByteArray();
+    byte[] truncated = new byte[bytes.length / 2];
+    System.arraycopy(bytes, 0, truncated, 0, truncated.length);
+
+    // a damaged state file must fail the read, the container is then recalculated
+    try {
+      helper.readContainer(new ByteArrayInputStream(truncated));
+      fail();
+    } catch(IOException expected) {
+    }
+  }
+
 }
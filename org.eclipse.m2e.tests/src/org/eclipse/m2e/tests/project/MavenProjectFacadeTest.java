@@ -10,6 +10,7 @@ import org.apache.maven.plugin.MojoExecution;
 import org.apache.maven.project.MavenProject;
 
 import org.eclipse.m2e.core.MavenPlugin;
+import org.eclipse.m2e.core.embedder.ArtifactKey;
 import org.eclipse.m2e.core.embedder.IMaven;
 import org.eclipse.m2e.core.internal.MavenPluginActivator;
 import org.eclipse.m2e.core.internal.project.registry.ProjectRegistryManager;
@@ -124,6 +125,26 @@ public class MavenProjectFacadeTest extends AbstractMavenProjectTestCase {
     assertEquals("1.6", maven.getMojoParameterValue(mavenProject, executions.get(0), "target", String.class, monitor));
   }
 
+  public void testGetArtifactKeyAfterWorkspaceRestart() throws Exception {
+    IProject project = importProject("projects/getmojoexecution/pom.xml");
+    assertNoErrors(project);
+
+    IMavenProjectFacade facade = MavenPlugin.getMavenProjectRegistry().create(project, monitor);
+    ArtifactKey artifactKey = facade.getArtifactKey();
+    String packaging = facade.getPackaging();
+    IPath outputLocation = facade.getOutputLocation();
+    deserializeFromWorkspaceState(facade);
+
+    // identity and layout are available without restoring full project state
+    assertEquals(artifactKey, facade.getArtifactKey());
+    assertEquals(project, facade.getProject());
+    assertEquals(packaging, facade.getPackaging());
+    assertEquals(outputLocation, facade.getOutputLocation());
+
+    // full state is still there on first access
+    assertFalse(facade.getMojoExecutionMapping().isEmpty());
+  }
+
   public void testGetProjectConfigurators() throws Exception {
     IProject project = importProject("projects/getmojoexecution/pom.xml");
     assertNoErrors(project);